@@ -0,0 +1,218 @@
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * micro benchmarks of the emulator core, every benchmark is warmed up before it is measured
+ */
+public class Benchmarks {
+    /**
+     * measured piece of code
+     */
+    public interface Benchmark {
+        /**
+         * run one operation
+         * @return any value depending on the work done, so it cannot be optimized away
+         * @throws Exception on error in benchmarked code
+         */
+        long run() throws Exception;
+    }
+
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int ITERATIONS = 5;
+    private static final long ITERATION_NANOS = 500_000_000L;
+
+    private static long blackhole = 0;
+
+    /**
+     * run all benchmarks or those whose name contains one of arguments
+     * @param argv filters
+     * @throws Exception on error in benchmarked code
+     */
+    public static void main(String[] argv) throws Exception {
+        Map<String, Benchmark> benchmarks = setupBenchmarks();
+        for(Map.Entry<String, Benchmark> entry : benchmarks.entrySet()) {
+            if(argv.length > 0 && !matches(entry.getKey(), argv)) {
+                continue;
+            }
+            for(int i=0; i < WARMUP_ITERATIONS; ++i) {
+                iteration(entry.getValue());
+            }
+            double best = 0;
+            double sum = 0;
+            for(int i=0; i < ITERATIONS; ++i) {
+                double opsPerSecond = iteration(entry.getValue());
+                best = Math.max(best, opsPerSecond);
+                sum += opsPerSecond;
+            }
+            System.out.println(String.format("%-32s %14.1f ops/s (best %.1f)", entry.getKey(), sum / ITERATIONS, best));
+        }
+        if(blackhole == 42) {
+            System.out.println();
+        }
+    }
+
+    private static boolean matches(String name, String[] filters) {
+        for(String filter : filters) {
+            if(name.contains(filter)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static double iteration(Benchmark benchmark) throws Exception {
+        long ops = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            blackhole += benchmark.run();
+            ++ops;
+            elapsed = System.nanoTime() - start;
+        } while(elapsed < ITERATION_NANOS);
+        return ops * 1e9 / elapsed;
+    }
+
+    private static Map<String, Benchmark> setupBenchmarks() throws Exception {
+        Map<String, Benchmark> benchmarks = new LinkedHashMap<>();
+        ArrayList<InstructionFactoryInterface> factories = InstructionFactory.factoriesByIndex();
+        Disassembler linear = new Disassembler(factories);
+        Disassembler table = new Disassembler(factories, InstructionFactory.decodeTable());
+        Assembler assembler = new Assembler(InstructionFactory.factoriesByMnemonic());
+        byte[] rom = Files.readAllBytes(Paths.get("roms", "BRIX"));
+        String assembly = table.disassemble(rom);
+
+        benchmarks.put("decode.linear (64K opcodes)", () -> decodeAll(linear));
+        benchmarks.put("decode.table (64K opcodes)", () -> decodeAll(table));
+        benchmarks.put("disassemble.rom", () -> table.disassemble(rom).length());
+        benchmarks.put("assemble.rom", () -> assembler.generateByteCode(assembly, 0).length);
+        benchmarks.put("execute.frame (10 instructions)", new Benchmark() {
+            VirtualMachineState state = new VirtualMachineState(rom, table);
+            int frames = 0;
+
+            @Override
+            public long run() throws Exception {
+                if(++frames == 3600) {
+                    state = new VirtualMachineState(rom, table);
+                    frames = 0;
+                }
+                for(int i=0; i < 10; ++i) {
+                    state.executeInstruction();
+                }
+                state.timerInterrupt();
+                return state.getIp();
+            }
+        });
+        benchmarks.put("execute.separate (256 machines, 1 frame)", new Benchmark() {
+            VirtualMachineState[] states = createStates(rom, 256);
+            int frames = 0;
+
+            @Override
+            public long run() throws Exception {
+                if(++frames == 3600) {
+                    states = createStates(rom, 256);
+                    frames = 0;
+                }
+                for(VirtualMachineState state : states) {
+                    state.runFrame(10);
+                }
+                return states[0].getIp();
+            }
+        });
+        benchmarks.put("execute.batch (256 machines, 1 frame)", new Benchmark() {
+            BatchedMachines batch = createBatch(rom, 256);
+            int frames = 0;
+
+            @Override
+            public long run() {
+                if(++frames == 3600) {
+                    batch = createBatch(rom, 256);
+                    frames = 0;
+                }
+                batch.runFrame(10);
+                return batch.getIp(0);
+            }
+        });
+        benchmarks.put("snapshot.savestate (frame + save)", new Benchmark() {
+            VirtualMachineState state = new VirtualMachineState(rom, new SwitchEngine());
+            ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+
+            @Override
+            public long run() throws Exception {
+                state.runFrame(10);
+                buffer.clear();
+                SaveState.write(state, buffer);
+                return buffer.position();
+            }
+        });
+        benchmarks.put("snapshot.cow (frame + snapshot)", new Benchmark() {
+            VirtualMachineState state = new VirtualMachineState(rom, new SwitchEngine());
+
+            @Override
+            public long run() throws Exception {
+                state.runFrame(10);
+                return state.snapshot().getCopiedPages();
+            }
+        });
+        benchmarks.put("env.step (64 environments)", new Benchmark() {
+            VectorEnvironment environment = new VectorEnvironment(rom, 64, new SwitchEngine());
+            int[] actions = new int[64];
+            long[] observations = new long[64 * VectorEnvironment.OBSERVATION_SIZE];
+            float[] rewards = new float[64];
+            boolean[] done = new boolean[64];
+            int steps = 0;
+
+            {
+                environment.setMaxEpisodeFrames(3600);
+                environment.reset(0, observations);
+            }
+
+            @Override
+            public long run() {
+                for(int env=0; env < 64; ++env) {
+                    actions[env] = (steps / 8 + env) % 3 == 0 ? 0 : 1 << (4 + (steps / 8 + env) % 3 * 2);
+                    if(done[env]) {
+                        environment.reset(env, steps + env);
+                    }
+                }
+                ++steps;
+                environment.step(actions, observations, rewards, done);
+                return observations[0];
+            }
+        });
+        return benchmarks;
+    }
+
+    private static VirtualMachineState[] createStates(byte[] rom, int count) {
+        SwitchEngine engine = new SwitchEngine();
+        VirtualMachineState[] states = new VirtualMachineState[count];
+        for(int i=0; i < count; ++i) {
+            states[i] = new VirtualMachineState(rom, engine);
+            states[i].setRandomSeed(i);
+            // batch does not skip idle loops, execute.separate has to do the same work
+            states[i].setIdleLoopSkipping(false);
+        }
+        return states;
+    }
+
+    private static BatchedMachines createBatch(byte[] rom, int count) {
+        BatchedMachines batch = new BatchedMachines(rom, count);
+        for(int i=0; i < count; ++i) {
+            batch.setRandomSeed(i, i);
+        }
+        return batch;
+    }
+
+    private static long decodeAll(Disassembler disassembler) {
+        long valid = 0;
+        for(int opcode=0; opcode < 0x10000; ++opcode) {
+            if(disassembler.decodeInstruction((short)opcode).isPresent()) {
+                ++valid;
+            }
+        }
+        return valid;
+    }
+}
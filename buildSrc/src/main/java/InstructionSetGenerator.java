@@ -0,0 +1,281 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * build step generating InstructionSet, InstructionVisitor and InstructionRegistry from instruction specification
+ */
+public class InstructionSetGenerator {
+    /**
+     * instruction read from specification
+     */
+    private static class Spec {
+        String name;
+        String pattern;
+        String mnemonic;
+        ArrayList<String> body = new ArrayList<>();
+
+        /**
+         * get operand layout from opcode pattern (hex digits removed)
+         * @return layout like NNN, XNN, XY, X, XYN or empty string
+         */
+        String getLayout() {
+            return pattern.replaceAll("[0-9A-F]", "");
+        }
+
+        /**
+         * get mask of bits which have to match
+         * @return opcode mask
+         */
+        int getOpcodeMask() {
+            int mask = 0;
+            for(char c : pattern.toCharArray()) {
+                mask = (mask << 4) | (Character.digit(c, 16) >= 0 ? 0xF : 0);
+            }
+            return mask;
+        }
+
+        /**
+         * get opcode with all arguments cleared
+         * @return opcode value
+         */
+        int getOpcodeValue() {
+            int value = 0;
+            for(char c : pattern.toCharArray()) {
+                value = (value << 4) | Math.max(Character.digit(c, 16), 0);
+            }
+            return value;
+        }
+
+        /**
+         * get name of InstructionTypes class implementing operand layout
+         * @return class name
+         */
+        String getType() {
+            String layout = getLayout();
+            return layout.isEmpty() ? "InstructionTypes.Type_NoArg" : "InstructionTypes.Type_" + layout;
+        }
+    }
+
+    /**
+     * generate sources from specification
+     * @param specification path to instruction specification
+     * @param outputDir directory for generated sources
+     * @throws IOException thrown on filesystem error or invalid specification
+     */
+    public static void generate(File specification, File outputDir) throws IOException {
+        ArrayList<String> imports = new ArrayList<>();
+        ArrayList<Spec> instructions = parse(Files.readAllLines(specification.toPath()), imports);
+
+        ArrayList<Spec> byAccuracy = new ArrayList<>(instructions);
+        byAccuracy.sort((a, b) -> Integer.bitCount(b.getOpcodeMask()) - Integer.bitCount(a.getOpcodeMask()));
+
+        outputDir.mkdirs();
+        write(new File(outputDir, "InstructionSet.java"), generateInstructionSet(instructions, imports));
+        write(new File(outputDir, "InstructionVisitor.java"), generateVisitor(instructions));
+        write(new File(outputDir, "InstructionRegistry.java"), generateRegistry(byAccuracy));
+    }
+
+    private static ArrayList<Spec> parse(List<String> lines, ArrayList<String> imports) throws IOException {
+        ArrayList<Spec> instructions = new ArrayList<>();
+        Spec current = null;
+        int linen = 0;
+        for(String line : lines) {
+            ++linen;
+            if(line.startsWith("#") || line.trim().isEmpty()) {
+                continue;
+            }
+            if(line.startsWith("    ")) {
+                if(current == null) {
+                    throw new IOException("line " + linen + ": execute body without instruction");
+                }
+                current.body.add(line.substring(4));
+            } else if(line.startsWith("import ")) {
+                imports.add(line);
+            } else {
+                String[] header = line.trim().split("\\s+");
+                if(header.length != 3 || !header[1].matches("[0-9A-F]*(NNN|XNN|XY|X|XYN)?[0-9A-F]*") || header[1].length() != 4) {
+                    throw new IOException("line " + linen + ": expected <class name> <opcode pattern> <mnemonic>");
+                }
+                current = new Spec();
+                current.name = header[0];
+                current.pattern = header[1];
+                current.mnemonic = header[2];
+                instructions.add(current);
+            }
+        }
+        if(instructions.isEmpty()) {
+            throw new IOException("no instructions in specification");
+        }
+        return instructions;
+    }
+
+    private static String generateInstructionSet(ArrayList<Spec> instructions, ArrayList<String> imports) {
+        StringBuilder b = new StringBuilder();
+        imports.forEach(line -> b.append(line).append("\n"));
+        b.append("\n");
+        b.append("/**\n");
+        b.append(" * class being placeholder for class defining instruction (generated from instructions.spec, do not edit)\n");
+        b.append(" */\n");
+        b.append("public class InstructionSet {\n");
+        for(Spec spec : instructions) {
+            String layout = spec.getLayout();
+            boolean hasArgs = !layout.isEmpty();
+            b.append("\n");
+            b.append("    /**\n");
+            b.append("     * class defining ").append(spec.name).append(" instruction\n");
+            b.append("     */\n");
+            b.append("    public static class ").append(spec.name).append(" extends ").append(spec.getType()).append(" implements Instruction {\n");
+            b.append("        /**\n");
+            b.append("         * construct insturction from opcode\n");
+            b.append("         * @param opcode opcode from bytecode\n");
+            b.append("         */\n");
+            b.append("        public ").append(spec.name).append("(short opcode) {\n");
+            if(hasArgs) {
+                b.append("            super(opcode);\n");
+            }
+            b.append("        }\n\n");
+            b.append("        /**\n");
+            b.append("         * construct instruction from assembly\n");
+            b.append("         * @param assemblyArgs tokenized assembly line\n");
+            b.append("         */\n");
+            b.append("        public ").append(spec.name).append("(String[] assemblyArgs) {\n");
+            if(hasArgs) {
+                b.append("            super(assemblyArgs);\n");
+            }
+            b.append("        }\n\n");
+            b.append("        /**\n");
+            b.append("         * disassemble instruction\n");
+            b.append("         * @return disassembled instruction\n");
+            b.append("         */\n");
+            b.append("        @Override\n");
+            b.append("        public String disassemble() {\n");
+            b.append("            return String.format(").append(disassemblyFormat(layout)).append(");\n");
+            b.append("        }\n\n");
+            b.append("        /**\n");
+            b.append("         * execute instruction\n");
+            b.append("         * @param state virtual machine state\n");
+            b.append("         */\n");
+            b.append("        @Override\n");
+            b.append("        public void execute(VirtualMachineState state) {\n");
+            spec.body.forEach(line -> b.append("            ").append(line).append("\n"));
+            b.append("        }\n\n");
+            b.append("        /**\n");
+            b.append("         * assemble instruction to bytecode\n");
+            b.append("         * @return compiled opcode as short\n");
+            b.append("         */\n");
+            b.append("        @Override\n");
+            b.append("        public short assemble() {\n");
+            b.append("            return (short) getOpcode(getMask());\n");
+            b.append("        }\n\n");
+            b.append("        /**\n");
+            b.append("         * accept concrete visitor\n");
+            b.append("         * @param visitor concrete visitor\n");
+            b.append("         */\n");
+            b.append("        @Override\n");
+            b.append("        public void accept(InstructionVisitor.Visitor visitor) {\n");
+            b.append("            visitor.visit(this);\n");
+            b.append("        }\n\n");
+            b.append("        /**\n");
+            b.append("         * get instruction mask\n");
+            b.append("         * @return instruction mask as int\n");
+            b.append("         */\n");
+            b.append("        public static int getMask() {\n");
+            b.append(String.format("            return 0x%04X;\n", spec.getOpcodeValue()));
+            b.append("        }\n\n");
+            b.append("        /**\n");
+            b.append("         * get instruction mnemonic\n");
+            b.append("         * @return instruction mnemonic as String\n");
+            b.append("         */\n");
+            b.append("        public static String getMnemonic() {\n");
+            b.append("            return \"").append(spec.mnemonic).append("\";\n");
+            b.append("        }\n");
+            b.append("    }\n");
+        }
+        b.append("}\n");
+        return b.toString();
+    }
+
+    private static String disassemblyFormat(String layout) {
+        switch(layout) {
+            case "NNN": return "\"%s 0x%X\\n\", getMnemonic(), getValueNNN()";
+            case "XNN": return "\"%s v%d, 0x%X\\n\", getMnemonic(), getValueX(), 0xff & getValueNN()";
+            case "XY": return "\"%s v%d, v%d\\n\", getMnemonic(), getValueX(), getValueY()";
+            case "X": return "\"%s v%d\\n\", getMnemonic(), getValueX()";
+            case "XYN": return "\"%s v%d, v%d, 0x%X\\n\", getMnemonic(), getValueX(), getValueY(), getValueN()";
+            default: return "\"%s\\n\", getMnemonic()";
+        }
+    }
+
+    private static String generateVisitor(ArrayList<Spec> instructions) {
+        StringBuilder b = new StringBuilder();
+        b.append("/**\n");
+        b.append(" * class being placeholder for instruction visitors (generated from instructions.spec, do not edit)\n");
+        b.append(" */\n");
+        b.append("public class InstructionVisitor {\n");
+        b.append("    interface Visitor {\n");
+        for(Spec spec : instructions) {
+            b.append("\n");
+            b.append("        /**\n");
+            b.append("         * implementation for ").append(spec.name).append(" instruction\n");
+            b.append("         * @param instr instruction object visited\n");
+            b.append("         */\n");
+            b.append("        void visit(InstructionSet.").append(spec.name).append(" instr);\n");
+        }
+        b.append("    }\n");
+        b.append("}\n");
+        return b.toString();
+    }
+
+    private static String generateRegistry(ArrayList<Spec> byAccuracy) {
+        StringBuilder b = new StringBuilder();
+        b.append("import java.util.ArrayList;\n");
+        b.append("import java.util.Arrays;\n\n");
+        b.append("/**\n");
+        b.append(" * factories and decode table of all instructions (generated from instructions.spec, do not edit)\n");
+        b.append(" */\n");
+        b.append("public class InstructionRegistry {\n");
+        b.append("    /**\n");
+        b.append("     * create factories of all instructions, instructions with more accurate opcode mask come first\n");
+        b.append("     * @return list of factories\n");
+        b.append("     */\n");
+        b.append("    public static ArrayList<InstructionFactoryInterface> createFactories() {\n");
+        b.append("        ArrayList<InstructionFactoryInterface> factories = new ArrayList<>();\n");
+        for(Spec spec : byAccuracy) {
+            b.append(String.format(
+                    "        factories.add(new InstructionFactory(InstructionSet.%1$s::new, InstructionSet.%1$s::new, 0x%2$04X, 0x%3$04X, \"%4$s\"));\n",
+                    spec.name, spec.getOpcodeMask(), spec.getOpcodeValue(), spec.mnemonic));
+        }
+        b.append("        return factories;\n");
+        b.append("    }\n\n");
+        b.append("    /**\n");
+        b.append("     * create table mapping every opcode to index of its factory in list returned by createFactories\n");
+        b.append("     * @return array of 0x10000 factory indexes, -1 for opcodes which are not valid instructions\n");
+        b.append("     */\n");
+        b.append("    public static byte[] createDecodeTable() {\n");
+        b.append("        byte[] table = new byte[0x10000];\n");
+        b.append("        Arrays.fill(table, (byte)-1);\n");
+        for(int i = byAccuracy.size() - 1; i >= 0; --i) {
+            Spec spec = byAccuracy.get(i);
+            b.append(String.format("        fill(table, 0x%04X, 0x%04X, %d);\n", spec.getOpcodeMask(), spec.getOpcodeValue(), i));
+        }
+        b.append("        return table;\n");
+        b.append("    }\n\n");
+        b.append("    private static void fill(byte[] table, int mask, int value, int index) {\n");
+        b.append("        int free = ~mask & 0xffff;\n");
+        b.append("        int args = 0;\n");
+        b.append("        do {\n");
+        b.append("            table[value | args] = (byte)index;\n");
+        b.append("            args = (args - free) & free;\n");
+        b.append("        } while(args != 0);\n");
+        b.append("    }\n");
+        b.append("}\n");
+        return b.toString();
+    }
+
+    private static void write(File file, String content) throws IOException {
+        Files.write(file.toPath(), content.getBytes());
+    }
+}
@@ -0,0 +1,579 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * class implementing CHIP-8 assembler
+ */
+public class Assembler {
+    private HashMap<String, InstructionFactoryInterface> factories;
+
+    public static class AssemblerResult {
+        private Serializable instr;
+        private int linen;
+
+        /**
+         * @param instr object representing instruction
+         * @param linen line number in assembly file with this instruction
+         */
+        public AssemblerResult(Serializable instr, int linen) {
+            this.linen = linen;
+            this.instr = instr;
+        }
+
+        /**
+         * @return the instruction being held
+         */
+        public Serializable getInstruction() {
+            return instr;
+        }
+
+        /**
+         * @return the line number being held
+         */
+        public int getLineNumber() {
+            return linen;
+        }
+    }
+
+    public static class Assembled {
+        byte[] byteCode;
+        SourceMap sourceMap;
+
+        /**
+         * @param byteCode compiled instructions
+         * @param sourceMap mapping between bytecode offsets and line numbers in assembly
+         */
+        public Assembled(byte[] byteCode, SourceMap sourceMap) {
+            this.byteCode = byteCode;
+            this.sourceMap = sourceMap;
+        }
+
+        /**
+         * creates this placeholder from raw assembler output
+         * @param results raw assembler output ( high level objects to be converted to bytecode byte[])
+         * @return this placeholder
+         */
+        public static Assembled fromResults(ArrayList<AssemblerResult> results) {
+            int[] lines = new int[results.size()];
+            int[] offsets = new int[results.size()];
+            int count = 0;
+            ArrayList<Byte> bc = new ArrayList<>();
+            for (AssemblerResult result : results) {
+                if(count == 0 || lines[count - 1] != result.getLineNumber()) {
+                    lines[count] = result.getLineNumber();
+                    offsets[count] = bc.size();
+                    ++count;
+                }
+                result.getInstruction().serialize(bc);
+            }
+            lines = Arrays.copyOf(lines, count);
+            offsets = Arrays.copyOf(offsets, count);
+            byte[] byteCode = new byte[bc.size()];
+            for(int i=0; i < bc.size(); ++i) {
+                byteCode[i] = bc.get(i);
+            }
+            return new Assembled(byteCode, new SourceMap(byteCode.length, lines, offsets));
+        }
+
+        /**
+         * @return the assembled bytecode
+         */
+        public byte[] getByteCode() {
+            return byteCode;
+        }
+
+        /**
+         * @return the mapping between bytecode offsets and line numbers
+         */
+        public SourceMap getSourceMap() {
+            return sourceMap;
+        }
+    }
+
+    /**
+     * creates Assembler object
+     * @param factories_ instruction factories which take assembly instruction as string
+     */
+    public Assembler(HashMap<String, InstructionFactoryInterface> factories_) {
+        factories = factories_;
+    }
+
+    /**
+     * kinds of assembly lines
+     */
+    public enum LineKind {
+        Empty,
+        Code,
+        Constant,
+        MacroStart,
+        MacroEnd
+    }
+
+    /**
+     * macro definition
+     */
+    private static class Macro {
+        String name;
+        String[] params;
+        ArrayList<String> body = new ArrayList<>();
+        int linen;
+
+        /**
+         * @param args tokenized macro directive (macro name param1, param2 ...)
+         * @param linen line number of macro directive
+         * @throws AssemblerException thrown when macro has no name
+         */
+        Macro(String[] args, int linen) throws AssemblerException {
+            if(args.length < 2) {
+                throw new AssemblerException(linen, "Missing macro name");
+            }
+            name = args[1];
+            params = Arrays.copyOfRange(args, 2, args.length);
+            this.linen = linen;
+        }
+    }
+
+    /**
+     * labels, constants and macros defined in assembly
+     */
+    public static class SymbolTable {
+        private HashMap<String, Integer> values = new HashMap<>();
+        private HashSet<String> labels = new HashSet<>();
+        private HashMap<String, Macro> macros = new HashMap<>();
+
+        /**
+         * get value of label or constant
+         * @param name symbol name
+         * @return symbol value or empty when not defined
+         */
+        public Optional<Integer> getValue(String name) {
+            return Optional.ofNullable(values.get(name));
+        }
+
+        /**
+         * check whether symbol is defined as label
+         * @param name symbol name
+         * @return true if it is a label
+         */
+        public boolean isLabel(String name) {
+            return labels.contains(name);
+        }
+
+        /**
+         * define or move label
+         * @param name label name
+         * @param address address of label
+         */
+        public void defineLabel(String name, int address) {
+            values.put(name, address);
+            labels.add(name);
+        }
+
+        /**
+         * remove symbol
+         * @param name symbol name
+         */
+        public void undefine(String name) {
+            values.remove(name);
+            labels.remove(name);
+        }
+
+        /**
+         * check whether symbol or macro with that name exists
+         * @param name name to check
+         * @return true if defined
+         */
+        public boolean isDefined(String name) {
+            return values.containsKey(name) || macros.containsKey(name);
+        }
+    }
+
+    /**
+     * assembles assembly code, labels and constants are collected in the first pass
+     * so they can be used before their definition
+     * @param assembly assembly code
+     * @param linen number of the first line
+     * @return list of assembly result
+     * @throws AssemblerException is thrown on assembly error
+     */
+    public ArrayList<AssemblerResult> assemble(String assembly, int linen) throws AssemblerException {
+        String[] lines = assembly.split("\n");
+        SymbolTable symbols = collectSymbols(lines, linen);
+        ArrayList<AssemblerResult> result = new ArrayList<>();
+        boolean inMacro = false;
+        for(String line : lines) {
+            LineKind kind = getKind(line);
+            if(kind == LineKind.MacroStart || kind == LineKind.MacroEnd) {
+                inMacro = kind == LineKind.MacroStart;
+            } else if(!inMacro && kind == LineKind.Code) {
+                assembleArgs(withoutLabel(tokenize(line)), linen, symbols, result, new HashSet<>(), 0);
+            }
+            ++linen;
+        }
+        return result;
+    }
+
+    /**
+     * first pass of assembler, collects labels, constants and macros
+     * @param lines assembly lines
+     * @param linen number of the first line
+     * @return symbol table
+     * @throws AssemblerException thrown on invalid or duplicated definition
+     */
+    public SymbolTable collectSymbols(String[] lines, int linen) throws AssemblerException {
+        SymbolTable symbols = new SymbolTable();
+        Macro macro = null;
+        int offset = 0;
+        for(String line : lines) {
+            String[] args = tokenize(line);
+            LineKind kind = getKind(args);
+            if(macro != null) {
+                if(kind == LineKind.MacroEnd) {
+                    symbols.macros.put(macro.name, macro);
+                    macro = null;
+                } else if(kind == LineKind.MacroStart) {
+                    throw new AssemblerException(linen, "Nested macro definition");
+                } else {
+                    macro.body.add(line);
+                }
+            } else if(kind == LineKind.MacroStart) {
+                macro = new Macro(args, linen);
+                checkSymbolName(symbols, macro.name, linen);
+            } else if(kind == LineKind.MacroEnd) {
+                throw new AssemblerException(linen, "endm without macro");
+            } else {
+                String label = getLabel(args);
+                if(label != null) {
+                    checkSymbolName(symbols, label, linen);
+                    symbols.defineLabel(label, 0x200 + offset);
+                }
+                args = withoutLabel(args);
+                if(kind == LineKind.Constant) {
+                    checkSymbolName(symbols, args[0], linen);
+                    symbols.values.put(args[0], resolve(args[2], symbols, linen, new HashSet<>()));
+                } else {
+                    offset += getSize(args, symbols, linen, 0);
+                }
+            }
+            ++linen;
+        }
+        if(macro != null) {
+            throw new AssemblerException(macro.linen, "Missing endm");
+        }
+        return symbols;
+    }
+
+    /**
+     * get kind of assembly line
+     * @param assembly one assembly line
+     * @return kind of line
+     */
+    public LineKind getKind(String assembly) {
+        return getKind(tokenize(assembly));
+    }
+
+    /**
+     * get label defined in assembly line
+     * @param assembly one assembly line
+     * @return label name or null when line does not define label
+     */
+    public String getLabel(String assembly) {
+        return getLabel(tokenize(assembly));
+    }
+
+    /**
+     * get number of bytes generated by assembly line without resolving symbols
+     * @param assembly one assembly line
+     * @param symbols symbol table with macros
+     * @param linen number of that line
+     * @return size of bytecode
+     * @throws AssemblerException thrown on invalid macro use
+     */
+    public int getSize(String assembly, SymbolTable symbols, int linen) throws AssemblerException {
+        String[] args = tokenize(assembly);
+        if(getKind(args) != LineKind.Code) {
+            return 0;
+        }
+        return getSize(withoutLabel(args), symbols, linen, 0);
+    }
+
+    /**
+     * second pass of assembler for one line, generates bytecode using symbols from the first pass
+     * @param assembly one assembly line
+     * @param linen number of that line
+     * @param symbols symbol table
+     * @param references set to which names of used symbols are added
+     * @return bytecode for the assembly
+     * @throws AssemblerException thrown on assembly error
+     */
+    public byte[] generateByteCode(String assembly, int linen, SymbolTable symbols, Set<String> references) throws AssemblerException {
+        ArrayList<AssemblerResult> results = new ArrayList<>();
+        String[] args = tokenize(assembly);
+        if(getKind(args) == LineKind.Code) {
+            assembleArgs(withoutLabel(args), linen, symbols, results, references, 0);
+        }
+        return serialize(results);
+    }
+
+    /**
+     * generate bytecode of assembly
+     * @param assembly assembly code
+     * @param linen number of the first line
+     * @return bytecode for the assembly
+     * @throws AssemblerException thrown on assembly error
+     */
+    public byte[] generateByteCode(String assembly, int linen) throws AssemblerException {
+        return serialize(assemble(assembly, linen));
+    }
+
+    /**
+     * get assembler output (bytecode with line numbers) in a placeholder
+     * @param assembly assembly line
+     * @param linen line number
+     * @return bytecode and corresponding line numbers mapping array
+     * @throws AssemblerException
+     */
+    public Assembled generateOutput(String assembly, int linen) throws AssemblerException {
+        return Assembled.fromResults(assemble(assembly, linen));
+    }
+
+    private static byte[] serialize(ArrayList<AssemblerResult> results) {
+        ArrayList<Byte> byteCode = new ArrayList<>();
+        results.forEach(result -> result.getInstruction().serialize(byteCode));
+        byte[] result = new byte[byteCode.size()];
+        for(int i=0; i < byteCode.size(); ++i) {
+            result[i] = byteCode.get(i);
+        }
+        return result;
+    }
+
+    private void assembleArgs(String[] assemblyArgs, int linen, SymbolTable symbols, ArrayList<AssemblerResult> result, Set<String> references, int depth) throws AssemblerException {
+        if(assemblyArgs.length == 0) {
+            return;
+        }
+        String mnemonic = assemblyArgs[0];
+        Macro macro = symbols.macros.get(mnemonic);
+        if(macro != null) {
+            for(String line : macro.body) {
+                assembleArgs(expand(macro, assemblyArgs, line, linen, depth), linen, symbols, result, references, depth + 1);
+            }
+            return;
+        }
+        assemblyArgs = assemblyArgs.clone();
+        for(int i=1; i < assemblyArgs.length; ++i) {
+            if(isSymbolName(assemblyArgs[i])) {
+                assemblyArgs[i] = String.format("0x%X", resolve(assemblyArgs[i], symbols, linen, references));
+            }
+        }
+        if(mnemonic.equals("db")) {
+            try{
+                result.add(new AssemblerResult(new EmitBytesInstruction(assemblyArgs), linen));
+            } catch (Exception e) {
+                throw new AssemblerException(linen, e.getMessage());
+            }
+        } else {
+            Optional<Instruction> assembled;
+            if(!factories.containsKey(mnemonic)) {
+                throw new AssemblerException(linen, "Invalid mnemonic");
+            }
+            assembled = factories.get(mnemonic).fromAssembly(assemblyArgs);
+            if(assembled.isPresent()) {
+                result.add(new AssemblerResult(assembled.get(), linen));
+            } else {
+                throw new AssemblerException(linen, "Invalid arguments to instruction");
+            }
+        }
+    }
+
+    private int getSize(String[] assemblyArgs, SymbolTable symbols, int linen, int depth) throws AssemblerException {
+        if(assemblyArgs.length == 0) {
+            return 0;
+        }
+        if(assemblyArgs[0].equals("db")) {
+            return assemblyArgs.length - 1;
+        }
+        Macro macro = symbols.macros.get(assemblyArgs[0]);
+        if(macro == null) {
+            return 2;
+        }
+        int size = 0;
+        for(String line : macro.body) {
+            size += getSize(expand(macro, assemblyArgs, line, linen, depth), symbols, linen, depth + 1);
+        }
+        return size;
+    }
+
+    private String[] expand(Macro macro, String[] assemblyArgs, String line, int linen, int depth) throws AssemblerException {
+        if(depth >= MAX_MACRO_DEPTH) {
+            throw new AssemblerException(linen, "Macro expansion too deep");
+        }
+        if(assemblyArgs.length - 1 != macro.params.length) {
+            throw new AssemblerException(linen, "Invalid arguments to macro");
+        }
+        String[] args = tokenize(line);
+        if(getKind(args) != LineKind.Code || getLabel(args) != null) {
+            throw new AssemblerException(linen, "Only instructions are allowed in macro");
+        }
+        for(int i=1; i < args.length; ++i) {
+            for(int j=0; j < macro.params.length; ++j) {
+                if(args[i].equals(macro.params[j])) {
+                    args[i] = assemblyArgs[j + 1];
+                    break;
+                }
+            }
+        }
+        return args;
+    }
+
+    private int resolve(String arg, SymbolTable symbols, int linen, Set<String> references) throws AssemblerException {
+        if(!isSymbolName(arg)) {
+            try {
+                return InstructionTypes.parseInt(arg);
+            } catch (IllegalArgumentException e) {
+                throw new AssemblerException(linen, "Invalid number");
+            }
+        }
+        references.add(arg);
+        Integer value = symbols.values.get(arg);
+        if(value == null) {
+            throw new AssemblerException(linen, "Undefined symbol " + arg);
+        }
+        return value;
+    }
+
+    private static void checkSymbolName(SymbolTable symbols, String name, int linen) throws AssemblerException {
+        if(!isSymbolName(name)) {
+            throw new AssemblerException(linen, "Invalid symbol name " + name);
+        }
+        if(symbols.isDefined(name)) {
+            throw new AssemblerException(linen, "Symbol already defined " + name);
+        }
+    }
+
+    private static boolean isSymbolName(String arg) {
+        return arg.matches("[A-Za-z_][A-Za-z0-9_.]*") && !arg.matches("v[0-9]+");
+    }
+
+    private static LineKind getKind(String[] args) {
+        args = withoutLabel(args);
+        if(args.length == 0) {
+            return LineKind.Empty;
+        } else if(args[0].equals("macro")) {
+            return LineKind.MacroStart;
+        } else if(args[0].equals("endm")) {
+            return LineKind.MacroEnd;
+        } else if(args.length == 3 && args[1].equals("equ")) {
+            return LineKind.Constant;
+        }
+        return LineKind.Code;
+    }
+
+    private static String getLabel(String[] args) {
+        if(args.length > 0 && args[0].endsWith(":")) {
+            return args[0].substring(0, args[0].length() - 1);
+        }
+        return null;
+    }
+
+    private static String[] withoutLabel(String[] args) {
+        if(getLabel(args) != null) {
+            return Arrays.copyOfRange(args, 1, args.length);
+        }
+        return args;
+    }
+
+    private static String[] tokenize(String assembly) {
+        String line = trimComments(assembly).replaceAll("^[\\s]+", "");
+        if(line.length() == 0) {
+            return new String[0];
+        }
+        return line.split("[\\s,]+");
+    }
+
+    private static String trimComments(String assembly) {
+        return assembly.replaceAll("#[^#]+#", "");
+    }
+
+    private static final int MAX_MACRO_DEPTH = 16;
+
+    /**
+     * class used to allow emitting bytes meta instruction
+     */
+    private static class EmitBytesInstruction implements Serializable {
+        ArrayList<Byte> data = new ArrayList<>();
+
+        /**
+         * creates instruction from assembly line
+         * @param assembleArgs tokenized assembly line
+         * @throws Exception thrown when the byte to be emitted overflows
+         */
+        public EmitBytesInstruction(String[] assembleArgs) throws Exception {
+            for(int i=1; i < assembleArgs.length; ++i) {
+                int number = InstructionTypes.parseInt(assembleArgs[i]);
+                if(number > 0xff) {
+                    throw new Exception("Number passed overflows byte");
+                }
+                data.add((byte)number);
+            }
+        }
+
+        /**
+         * writes generated bytecode to bytecode array during serialization
+         * @param array complete bytecode array
+         */
+        @Override
+        public void serialize(ArrayList<Byte> array) {
+            array.addAll(data);
+        }
+    }
+
+    /**
+     * function used for fixing offsets when applying operation on assembly code
+     * @param assembly assembly code from view
+     * @return corrected assembly code
+     * @throws AssemblerException thrown on assembly error
+     */
+    public String fixOffsets(String assembly) throws AssemblerException {
+        AssemblyListing listing = new AssemblyListing(this);
+        listing.load(assembly);
+        return listing.getText();
+    }
+
+    /**
+     * class used to throw assembler exceptions
+     */
+    public static class AssemblerException extends Exception {
+        int linen;
+        String msg;
+
+        /**
+         * create exception from line number end error message
+         * @param linen_ line number of error
+         * @param msg_ error message
+         */
+        public AssemblerException(int linen_, String msg_) {
+            linen = linen_;
+            msg = msg_;
+        }
+
+        /**
+         * get line number of error
+         * @return line number of error
+         */
+        public int getLineNumber() {
+            return linen;
+        }
+
+        /**
+         * get error message
+         * @return error message
+         */
+        public String getMsg() {
+            return msg;
+        }
+    }
+}
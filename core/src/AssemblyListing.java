@@ -0,0 +1,294 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * assembly code from editor kept line by line together with bytecode of every line,
+ * so that changing one line does not require assembling the whole code again
+ */
+public class AssemblyListing {
+    /**
+     * one line of assembly with its bytecode
+     */
+    private static class Line {
+        String source;
+        String label = null;
+        boolean structural = false;
+        int size = 0;
+        byte[] byteCode = new byte[0];
+        HashSet<String> references = new HashSet<>();
+        String rendered = null;
+        int renderedOffset = -1;
+
+        /**
+         * @param source assembly line without offset annotation
+         */
+        Line(String source) {
+            this.source = source;
+        }
+    }
+
+    private Assembler assembler;
+    private Assembler.SymbolTable symbols = new Assembler.SymbolTable();
+    private ArrayList<Line> lines = new ArrayList<>();
+    private int[] offsets = new int[]{ 0 };
+    private int validOffsets = 1;
+    private String text = null;
+
+    /**
+     * create empty listing
+     * @param assembler assembler used to generate bytecode of changed lines
+     */
+    public AssemblyListing(Assembler assembler) {
+        this.assembler = assembler;
+    }
+
+    /**
+     * check whether the listing holds exactly this assembly
+     * @param assembly assembly code from view
+     * @return true if this assembly was generated by this listing
+     */
+    public boolean matches(String assembly) {
+        return text != null && text.equals(assembly);
+    }
+
+    /**
+     * replace content of the listing assembling every line
+     * @param assembly assembly code from view
+     * @throws Assembler.AssemblerException thrown on assembly error
+     */
+    public void load(String assembly) throws Assembler.AssemblerException {
+        load(Arrays.asList(assembly.split("\n")));
+    }
+
+    /**
+     * get number of lines
+     * @return number of lines in listing
+     */
+    public int size() {
+        return lines.size();
+    }
+
+    /**
+     * get bytecode of line
+     * @param linen line number
+     * @return bytecode generated from that line
+     */
+    public byte[] getByteCode(int linen) {
+        return lines.get(linen).byteCode;
+    }
+
+    /**
+     * get offset in bytecode of line, offsets are recomputed lazily only up to the requested line
+     * @param linen line number (size() gives total length of bytecode)
+     * @return offset of the first byte generated by this line
+     */
+    public int getOffset(int linen) {
+        if(linen >= validOffsets) {
+            if(offsets.length < lines.size() + 1) {
+                int[] grown = new int[Math.max(lines.size() + 1, offsets.length * 2)];
+                System.arraycopy(offsets, 0, grown, 0, validOffsets);
+                offsets = grown;
+            }
+            for(; validOffsets <= linen; ++validOffsets) {
+                offsets[validOffsets] = offsets[validOffsets - 1] + lines.get(validOffsets - 1).size;
+            }
+        }
+        return offsets[linen];
+    }
+
+    /**
+     * replace lines with new ones, only the new lines and lines referencing labels which moved are assembled
+     * (changes to constants or macros assemble the whole code again), on assembly error the listing keeps
+     * its previous content
+     * @param linen first line to replace
+     * @param count number of lines to be replaced
+     * @param sources new assembly lines
+     * @throws Assembler.AssemblerException thrown on assembly error
+     */
+    public void replace(int linen, int count, List<String> sources) throws Assembler.AssemblerException {
+        ArrayList<String> all = new ArrayList<>(lines.size() - count + sources.size());
+        lines.subList(0, linen).forEach(line -> all.add(line.source));
+        all.addAll(sources);
+        lines.subList(linen + count, lines.size()).forEach(line -> all.add(line.source));
+        if(isStructural(linen, lines.subList(linen, linen + count), sources)) {
+            load(all);
+            return;
+        }
+        ArrayList<String> previous = new ArrayList<>(lines.size());
+        lines.forEach(line -> previous.add(line.source));
+        try {
+            update(linen, count, sources);
+        } catch (Assembler.AssemblerException | RuntimeException error) {
+            // incremental update can stop half way through symbols and lines, assemble everything again
+            try {
+                load(all);
+            } catch (Assembler.AssemblerException | RuntimeException loadError) {
+                load(previous);
+                throw loadError;
+            }
+        }
+    }
+
+    private void update(int linen, int count, List<String> sources) throws Assembler.AssemblerException {
+        List<Line> replaced = lines.subList(linen, linen + count);
+        text = null;
+        HashMap<String, Integer> previous = new HashMap<>();
+        int sizeDelta = 0;
+        for(Line line : replaced) {
+            sizeDelta -= line.size;
+            if(line.label != null) {
+                symbols.getValue(line.label).ifPresent(value -> previous.put(line.label, value));
+                symbols.undefine(line.label);
+            }
+        }
+        ArrayList<Line> replacement = new ArrayList<>(sources.size());
+        for(int i=0; i < sources.size(); ++i) {
+            Line line = new Line(stripOffset(sources.get(i)));
+            line.label = assembler.getLabel(line.source);
+            line.size = assembler.getSize(line.source, symbols, linen + i);
+            sizeDelta += line.size;
+            if(line.label != null) {
+                previous.putIfAbsent(line.label, -1);
+            }
+            replacement.add(line);
+        }
+        replaced.clear();
+        replaced.addAll(replacement);
+        validOffsets = Math.min(validOffsets, linen + 1);
+
+        HashSet<String> changed = new HashSet<>();
+        if(sizeDelta != 0 || !previous.isEmpty()) {
+            updateLabels(changed);
+            previous.forEach((name, value) -> {
+                Optional<Integer> current = symbols.getValue(name);
+                if(!current.isPresent() || current.get().intValue() != value) {
+                    changed.add(name);
+                }
+            });
+        }
+        for(int i=0; i < replacement.size(); ++i) {
+            assembleLine(replacement.get(i), linen + i);
+        }
+        if(!changed.isEmpty()) {
+            for(int i=0; i < lines.size(); ++i) {
+                Line line = lines.get(i);
+                if((i < linen || i >= linen + replacement.size()) && !Collections.disjoint(line.references, changed)) {
+                    assembleLine(line, i);
+                }
+            }
+        }
+    }
+
+    /**
+     * get assembly with offset annotations, lines whose offset did not change are not formatted again
+     * @return assembly code to display
+     */
+    public String getText() {
+        if(text != null) {
+            return text;
+        }
+        getOffset(lines.size());
+        StringBuilder builder = new StringBuilder();
+        for(int linen = 0; linen < lines.size(); ++linen) {
+            Line line = lines.get(linen);
+            if(line.rendered == null || line.renderedOffset != offsets[linen]) {
+                line.rendered = render(line, offsets[linen]);
+                line.renderedOffset = offsets[linen];
+            }
+            builder.append(line.rendered);
+        }
+        text = builder.toString();
+        return text;
+    }
+
+    private void load(List<String> sources) throws Assembler.AssemblerException {
+        text = null;
+        String[] stripped = new String[sources.size()];
+        for(int i=0; i < stripped.length; ++i) {
+            stripped[i] = stripOffset(sources.get(i));
+        }
+        Assembler.SymbolTable loadedSymbols = assembler.collectSymbols(stripped, 0);
+        ArrayList<Line> loaded = new ArrayList<>(stripped.length);
+        boolean inMacro = false;
+        for(int linen = 0; linen < stripped.length; ++linen) {
+            Line line = new Line(stripped[linen]);
+            Assembler.LineKind kind = assembler.getKind(line.source);
+            line.structural = inMacro || (kind != Assembler.LineKind.Code && kind != Assembler.LineKind.Empty);
+            if(kind == Assembler.LineKind.MacroStart || kind == Assembler.LineKind.MacroEnd) {
+                inMacro = kind == Assembler.LineKind.MacroStart;
+            } else if(!inMacro) {
+                line.label = assembler.getLabel(line.source);
+                line.byteCode = assembler.generateByteCode(line.source, linen, loadedSymbols, line.references);
+                line.size = line.byteCode.length;
+            }
+            loaded.add(line);
+        }
+        lines = loaded;
+        symbols = loadedSymbols;
+        validOffsets = 1;
+    }
+
+    private boolean isStructural(int linen, List<Line> replaced, List<String> sources) {
+        if(linen > 0 && lines.get(linen - 1).structural) {
+            return true;
+        }
+        for(Line line : replaced) {
+            if(line.structural) {
+                return true;
+            }
+        }
+        for(String source : sources) {
+            Assembler.LineKind kind = assembler.getKind(source);
+            if(kind != Assembler.LineKind.Code && kind != Assembler.LineKind.Empty) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void updateLabels(HashSet<String> changed) throws Assembler.AssemblerException {
+        HashSet<String> seen = new HashSet<>();
+        getOffset(lines.size());
+        for(int linen = 0; linen < lines.size(); ++linen) {
+            String label = lines.get(linen).label;
+            if(label == null) {
+                continue;
+            }
+            if(!seen.add(label) || (symbols.getValue(label).isPresent() && !symbols.isLabel(label))) {
+                throw new Assembler.AssemblerException(linen, "Symbol already defined " + label);
+            }
+            int address = 0x200 + offsets[linen];
+            Optional<Integer> current = symbols.getValue(label);
+            if(!current.isPresent() || current.get() != address) {
+                symbols.defineLabel(label, address);
+                changed.add(label);
+            }
+        }
+    }
+
+    private void assembleLine(Line line, int linen) throws Assembler.AssemblerException {
+        line.references.clear();
+        line.byteCode = assembler.generateByteCode(line.source, linen, symbols, line.references);
+        line.size = line.byteCode.length;
+    }
+
+    private static String stripOffset(String source) {
+        return source.replaceAll("^#@[^#]+#", "");
+    }
+
+    private static String render(Line line, int index) {
+        byte[] compiled = line.byteCode;
+        StringBuilder builder = new StringBuilder();
+        if(compiled.length == 2) {
+            builder.append(String.format("#@ %04X %04X : %02X %02X #", index, index+0x200, compiled[0], compiled[1]));
+        } else if(compiled.length == 1){
+            builder.append(String.format("#@ %04X %04X : %02X    #", index, index+0x200, compiled[0]));
+        }
+        return builder.append(line.source).append("\n").toString();
+    }
+}
@@ -0,0 +1,908 @@
+import java.util.Arrays;
+
+/**
+ * many virtual machines running the same program stored as struct of arrays: registers are stored register-major
+ * (register n of all machines is contiguous), I, ip, timers and keypads in one array each, call stacks, memories
+ * and framebuffers in flat arrays,
+ * while all machines are at the same address (they run in lockstep until their input differs) the opcode is
+ * executed as one loop over all machines with constant operands, diverged machines are executed one by one
+ * with a switch over flat arrays, call stack slices of all machines are doubled when one of them overflows
+ * (call stack of VirtualMachineState grows without limit too),
+ * opcodes are fetched from shared program image unless machine wrote to that part of its memory,
+ * it has to follow instructions.spec exactly like SwitchEngine (check with BatchRunner --verify after every change)
+ */
+public class BatchedMachines {
+    private static final int REGS = 16;
+    private static final int MEMORY = VirtualMachineState.MEMORY_SIZE;
+    private static final int ROWS = VirtualMachineState.SCREEN_HEIGHT;
+    // memories of machines are not 4 KB apart, same address in all machines would map to the same cache set
+    private static final int MEMORY_STRIDE = MEMORY + 64;
+    // one bit of dirty mask covers one page
+    private static final int PAGE_BITS = 6;
+
+    private static final int CLEAR = 0;
+    private static final int RETURN = 1;
+    private static final int CALL = 2;
+    private static final int JUMP = 3;
+    private static final int SKIP_EQUAL_IMM = 4;
+    private static final int SKIP_NOT_EQUAL_IMM = 5;
+    private static final int SKIP_EQUAL_REG = 6;
+    private static final int SKIP_NOT_EQUAL_REG = 7;
+    private static final int LOAD_IMM = 8;
+    private static final int ADD_IMM = 9;
+    private static final int MOVE = 10;
+    private static final int OR = 11;
+    private static final int AND = 12;
+    private static final int XOR = 13;
+    private static final int ADD = 14;
+    private static final int SUB = 15;
+    private static final int SHIFT_RIGHT = 16;
+    private static final int SUB_REVERSE = 17;
+    private static final int SHIFT_LEFT = 18;
+    private static final int LOAD_I = 19;
+    private static final int JUMP_V0 = 20;
+    private static final int RANDOM = 21;
+    private static final int DRAW = 22;
+    private static final int SKIP_KEY = 23;
+    private static final int SKIP_NOT_KEY = 24;
+    private static final int GET_DELAY = 25;
+    private static final int GET_KEY = 26;
+    private static final int SET_DELAY = 27;
+    private static final int SET_SOUND = 28;
+    private static final int ADD_I = 29;
+    private static final int SPRITE = 30;
+    private static final int BCD = 31;
+    private static final int STORE = 32;
+    private static final int LOAD = 33;
+    private static final int INVALID = 34;
+
+    private static final byte[] KIND = createKindTable();
+
+    private static final byte RUNNING = 0;
+    private static final byte FAULTED = 1;
+
+
+    private final byte[] program;
+    private final int[] imageOpcodes = new int[MEMORY - 1];
+    private final int count;
+    private final int[] regs;
+    private final int[] regI;
+    private final int[] ip;
+    private final int[] delayTimer;
+    private final int[] soundTimer;
+    private int[] stack;
+    // capacity of call stack slice of every machine
+    private int stackStride = VirtualMachineState.STACK_LIMIT;
+    private final int[] stackDepth;
+    private final byte[] memory;
+    private final long[] dirty;
+    private long dirtyAny = 0;
+    private boolean dirtyAnyStale = false;
+    private final long[] framebuffer;
+    private final int[] keypad;
+    private final long[] random;
+    private final byte[] status;
+    private final String[] faults;
+    private int faulted = 0;
+
+    private long instructions = 0;
+
+    /**
+     * create machines, all of them start at 0x200 with random generator seeded with 0
+     * @param program bytecode loaded at address 0x200
+     * @param count number of machines
+     */
+    public BatchedMachines(byte[] program, int count) {
+        if(program.length > VirtualMachineState.MAX_PROGRAM_SIZE) {
+            throw new IllegalArgumentException("Program too long");
+        }
+        this.program = program.clone();
+        this.count = count;
+        byte[] image = new byte[MEMORY];
+        System.arraycopy(VirtualMachineState.BuiltinSprites, 0, image, 0, VirtualMachineState.BuiltinSprites.length);
+        System.arraycopy(program, 0, image, 0x200, program.length);
+        for(int address=0; address < imageOpcodes.length; ++address) {
+            imageOpcodes[address] = (image[address] & 0xff) << 8 | image[address + 1] & 0xff;
+        }
+        regs = new int[REGS * count];
+        regI = new int[count];
+        ip = new int[count];
+        delayTimer = new int[count];
+        soundTimer = new int[count];
+        stack = new int[count * stackStride];
+        stackDepth = new int[count];
+        memory = new byte[count * MEMORY_STRIDE];
+        dirty = new long[count];
+        framebuffer = new long[count * ROWS];
+        keypad = new int[count];
+        random = new long[count];
+        status = new byte[count];
+        faults = new String[count];
+        for(int machine=0; machine < count; ++machine) {
+            reset(machine, 0);
+        }
+    }
+
+    /**
+     * get number of machines
+     * @return machines
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * restart machine with program loaded
+     * @param machine machine number
+     * @param seed seed of random number generator
+     */
+    public void reset(int machine, long seed) {
+        for(int n=0; n < REGS; ++n) {
+            regs[n * count + machine] = 0;
+        }
+        Arrays.fill(memory, machine * MEMORY_STRIDE, machine * MEMORY_STRIDE + MEMORY, (byte)0);
+        Arrays.fill(framebuffer, machine * ROWS, (machine + 1) * ROWS, 0);
+        System.arraycopy(VirtualMachineState.BuiltinSprites, 0, memory, machine * MEMORY_STRIDE, VirtualMachineState.BuiltinSprites.length);
+        System.arraycopy(program, 0, memory, machine * MEMORY_STRIDE + 0x200, program.length);
+        dirty[machine] = 0;
+        dirtyAnyStale = true;
+        regI[machine] = 0;
+        ip[machine] = 0x200;
+        delayTimer[machine] = 0;
+        soundTimer[machine] = 0;
+        stackDepth[machine] = 0;
+        keypad[machine] = 0;
+        if(status[machine] == FAULTED) {
+            --faulted;
+        }
+        status[machine] = RUNNING;
+        faults[machine] = null;
+        setRandomSeed(machine, seed);
+    }
+
+    /**
+     * seed random number generator of machine, sequence is the same as of VirtualMachineState with the same seed
+     * @param machine machine number
+     * @param seed random seed
+     */
+    public void setRandomSeed(int machine, long seed) {
+        random[machine] = VirtualMachineState.scrambleSeed(seed);
+    }
+
+    /**
+     * set state of keypad of machine
+     * @param machine machine number
+     * @param mask bitmask of pressed keys (bit n is set when key n is pressed)
+     */
+    public void setKeypad(int machine, int mask) {
+        keypad[machine] = mask & 0xffff;
+    }
+
+    /**
+     * execute one instruction on every machine which did not fault
+     */
+    public void step() {
+        if(faulted == 0 && stepLockstep()) {
+            instructions += count;
+            return;
+        }
+        for(int machine=0; machine < count; ++machine) {
+            run(machine, 1);
+        }
+    }
+
+    /**
+     * emulate one frame on every machine, execute instructions and then tick timers once,
+     * machines are stepped together while they are in lockstep, after they diverge the rest of the frame
+     * is executed machine by machine (machines are independent, so the order does not change the result)
+     * @param instructionsPerFrame number of instructions executed per frame
+     */
+    public void runFrame(int instructionsPerFrame) {
+        int i = 0;
+        while(i < instructionsPerFrame && faulted == 0 && stepLockstep()) {
+            instructions += count;
+            ++i;
+        }
+        if(i < instructionsPerFrame) {
+            for(int machine=0; machine < count; ++machine) {
+                run(machine, instructionsPerFrame - i);
+            }
+        }
+        for(int machine=0; machine < count; ++machine) {
+            if(status[machine] != RUNNING) {
+                continue;
+            }
+            if(delayTimer[machine] > 0) {
+                delayTimer[machine]--;
+            }
+            if(soundTimer[machine] > 0) {
+                soundTimer[machine]--;
+            }
+        }
+    }
+
+    /**
+     * get number of instructions executed by all machines
+     * @return instructions
+     */
+    public long getInstructions() {
+        return instructions;
+    }
+
+    /**
+     * check if machine stopped on error
+     * @param machine machine number
+     * @return true when machine faulted
+     */
+    public boolean isFaulted(int machine) {
+        return status[machine] == FAULTED;
+    }
+
+    /**
+     * get reason of fault
+     * @param machine machine number
+     * @return error message or null when machine did not fault
+     */
+    public String getFault(int machine) {
+        return faults[machine];
+    }
+
+    /**
+     * get register value
+     * @param machine machine number
+     * @param n register number (0 - 15)
+     * @return register value
+     */
+    public int getReg(int machine, int n) {
+        return regs[n * count + machine];
+    }
+
+    /**
+     * get reg I
+     * @param machine machine number
+     * @return I reg value
+     */
+    public int getRegI(int machine) {
+        return regI[machine];
+    }
+
+    /**
+     * get reg ip
+     * @param machine machine number
+     * @return ip value
+     */
+    public int getIp(int machine) {
+        return ip[machine];
+    }
+
+    /**
+     * get delay timer value
+     * @param machine machine number
+     * @return delay timer counter value
+     */
+    public int getDelayTimerCounter(int machine) {
+        return delayTimer[machine];
+    }
+
+    /**
+     * get sound timer value
+     * @param machine machine number
+     * @return sound timer counter value
+     */
+    public int getSoundTimerCounter(int machine) {
+        return soundTimer[machine];
+    }
+
+    /**
+     * get byte from memory of machine
+     * @param machine machine number
+     * @param address address of byte
+     * @return byte from memory
+     */
+    public byte memoryGetByte(int machine, int address) {
+        return memory[machine * MEMORY_STRIDE + address];
+    }
+
+    /**
+     * get framebuffers of all machines, rows of machine m start at m * SCREEN_HEIGHT,
+     * every row is one long with pixel x stored in bit x
+     * @return framebuffers (not a copy)
+     */
+    public long[] getFramebuffers() {
+        return framebuffer;
+    }
+
+    /**
+     * double call stack slice of every machine, deep recursion is rare so the whole array is laid out again
+     */
+    private void growStacks() {
+        int stride = stackStride * 2;
+        int[] grown = new int[count * stride];
+        for(int machine=0; machine < count; ++machine) {
+            System.arraycopy(stack, machine * stackStride, grown, machine * stride, stackDepth[machine]);
+        }
+        stack = grown;
+        stackStride = stride;
+    }
+
+    /**
+     * copy whole state of machine except random number generator to virtual machine
+     * @param machine machine number
+     * @param state target virtual machine
+     */
+    public void copyTo(int machine, VirtualMachineState state) {
+        for(int n=0; n < REGS; ++n) {
+            state.setReg(n, regs[n * count + machine]);
+        }
+        state.setRegI(regI[machine]);
+        state.setIp(ip[machine]);
+        state.setDelayTimerCounter(delayTimer[machine]);
+        state.setSoundTimerCounter(soundTimer[machine]);
+        state.setCallStack(Arrays.copyOfRange(stack, machine * stackStride, machine * stackStride + stackDepth[machine]));
+        for(int address=0; address < MEMORY; ++address) {
+            state.memorySetByte(address, memory[machine * MEMORY_STRIDE + address]);
+        }
+        System.arraycopy(framebuffer, machine * ROWS, state.getFramebuffer(), 0, ROWS);
+        state.setKeypad(keypad[machine]);
+    }
+
+    /**
+     * execute instructions on one machine until it faults
+     * @param machine machine number
+     * @param steps number of instructions
+     */
+    private void run(int machine, int steps) {
+        for(int i=0; i < steps && status[machine] == RUNNING; ++i) {
+            int address = ip[machine];
+            if(address < 0 || address + 1 >= MEMORY) {
+                fault(machine, String.format("Instruction fetch outside of memory at %03X", address));
+                return;
+            }
+            long pages = 1L << (address >> PAGE_BITS) | 1L << (address + 1 >> PAGE_BITS);
+            int opcode;
+            if((dirty[machine] & pages) == 0) {
+                opcode = imageOpcodes[address];
+            } else {
+                int base = machine * MEMORY_STRIDE + address;
+                opcode = (memory[base] & 0xff) << 8 | memory[base + 1] & 0xff;
+            }
+            execute(machine, opcode);
+            ++instructions;
+        }
+    }
+
+    /**
+     * execute instruction when all machines are at the same address of unmodified program (the common case while
+     * their input did not differ yet), the opcode is read once from program image
+     * @return false when machines diverged and have to be stepped one by one
+     */
+    private boolean stepLockstep() {
+        int address = ip[0];
+        if(address < 0 || address + 1 >= MEMORY) {
+            return false;
+        }
+        if(dirtyAnyStale) {
+            dirtyAny = 0;
+            for(long pages : dirty) {
+                dirtyAny |= pages;
+            }
+            dirtyAnyStale = false;
+        }
+        if((dirtyAny & (1L << (address >> PAGE_BITS) | 1L << (address + 1 >> PAGE_BITS))) != 0) {
+            return false;
+        }
+        for(int machine=1; machine < count; ++machine) {
+            if(ip[machine] != address) {
+                return false;
+            }
+        }
+        executeUniform(imageOpcodes[address]);
+        return true;
+    }
+
+    private void fault(int machine, String reason) {
+        status[machine] = FAULTED;
+        faults[machine] = reason;
+        ++faulted;
+    }
+
+    private void markDirty(int machine, int address, int length) {
+        for(int page = address >> PAGE_BITS; page <= (address + length - 1) >> PAGE_BITS; ++page) {
+            dirty[machine] |= 1L << page;
+        }
+        dirtyAny |= dirty[machine];
+    }
+
+    private int nextRandom(int machine) {
+        random[machine] = VirtualMachineState.nextRandomState(random[machine]);
+        return VirtualMachineState.randomByte(random[machine]);
+    }
+
+    /**
+     * execute opcode on all machines, operands are the same for all of them so register operands are
+     * contiguous rows of regs
+     */
+    private void executeUniform(int opcode) {
+        int[] regs = this.regs;
+        int[] ip = this.ip;
+        int count = this.count;
+        int kind = KIND[opcode];
+        int x = (opcode >> 8 & 0xf) * count;
+        int y = (opcode >> 4 & 0xf) * count;
+        int f = 15 * count;
+        int nn = opcode & 0xff;
+        int nnn = opcode & 0xfff;
+        switch(kind) {
+            case CLEAR:
+                Arrays.fill(framebuffer, 0);
+                break;
+            case JUMP:
+                Arrays.fill(ip, nnn);
+                return;
+            case SKIP_EQUAL_IMM:
+                for(int m=0; m < count; ++m) {
+                    ip[m] += regs[x + m] == nn ? 4 : 2;
+                }
+                return;
+            case SKIP_NOT_EQUAL_IMM:
+                for(int m=0; m < count; ++m) {
+                    ip[m] += regs[x + m] != nn ? 4 : 2;
+                }
+                return;
+            case SKIP_EQUAL_REG:
+                for(int m=0; m < count; ++m) {
+                    ip[m] += regs[x + m] == regs[y + m] ? 4 : 2;
+                }
+                return;
+            case SKIP_NOT_EQUAL_REG:
+                for(int m=0; m < count; ++m) {
+                    ip[m] += regs[x + m] != regs[y + m] ? 4 : 2;
+                }
+                return;
+            case LOAD_IMM:
+                Arrays.fill(regs, x, x + count, nn);
+                break;
+            case ADD_IMM:
+                for(int m=0; m < count; ++m) {
+                    regs[x + m] = (regs[x + m] + nn) & 0xff;
+                }
+                break;
+            case MOVE:
+                System.arraycopy(regs, y, regs, x, count);
+                break;
+            case OR:
+                for(int m=0; m < count; ++m) {
+                    regs[x + m] |= regs[y + m];
+                }
+                break;
+            case AND:
+                for(int m=0; m < count; ++m) {
+                    regs[x + m] &= regs[y + m];
+                }
+                break;
+            case XOR:
+                for(int m=0; m < count; ++m) {
+                    regs[x + m] ^= regs[y + m];
+                }
+                break;
+            case ADD:
+                for(int m=0; m < count; ++m) {
+                    int result = regs[x + m] + regs[y + m];
+                    regs[f + m] = result >> 8;
+                    regs[x + m] = result & 0xff;
+                }
+                break;
+            case SUB:
+                for(int m=0; m < count; ++m) {
+                    int result = regs[x + m] - regs[y + m];
+                    regs[f + m] = result >>> 31;
+                    regs[x + m] = result & 0xff;
+                }
+                break;
+            case SHIFT_RIGHT:
+                for(int m=0; m < count; ++m) {
+                    regs[f + m] = regs[x + m] & 1;
+                    // register is read again after VF is written, like in instructions.spec
+                    regs[x + m] = regs[x + m] >>> 1;
+                }
+                break;
+            case SUB_REVERSE:
+                for(int m=0; m < count; ++m) {
+                    int result = regs[y + m] - regs[x + m];
+                    regs[f + m] = result >>> 31;
+                    regs[x + m] = result & 0xff;
+                }
+                break;
+            case SHIFT_LEFT:
+                for(int m=0; m < count; ++m) {
+                    int vx = regs[x + m];
+                    regs[f + m] = vx >> 7;
+                    regs[x + m] = (vx << 1) & 0xfe;
+                }
+                break;
+            case LOAD_I:
+                Arrays.fill(regI, nnn);
+                break;
+            case JUMP_V0:
+                for(int m=0; m < count; ++m) {
+                    ip[m] = regs[m] + nnn;
+                }
+                return;
+            case GET_DELAY:
+                System.arraycopy(delayTimer, 0, regs, x, count);
+                break;
+            case SET_DELAY:
+                System.arraycopy(regs, x, delayTimer, 0, count);
+                break;
+            case SET_SOUND:
+                System.arraycopy(regs, x, soundTimer, 0, count);
+                break;
+            case ADD_I:
+                for(int m=0; m < count; ++m) {
+                    int value = regI[m] + regs[x + m];
+                    regs[f + m] = value > 0xfff ? 1 : 0;
+                    regI[m] = value;
+                }
+                break;
+            case SPRITE:
+                // register number, not its value, like in instructions.spec
+                Arrays.fill(regI, (opcode >> 8 & 0xf) * 5);
+                break;
+            default:
+                for(int m=0; m < count; ++m) {
+                    execute(m, opcode);
+                }
+                return;
+        }
+        for(int m=0; m < count; ++m) {
+            ip[m] += 2;
+        }
+    }
+
+    private void execute(int machine, int opcode) {
+        int[] regs = this.regs;
+        int[] ip = this.ip;
+        int count = this.count;
+        int f = 15 * count;
+        switch(KIND[opcode]) {
+            case CLEAR:
+                {
+                    Arrays.fill(framebuffer, machine * ROWS, (machine + 1) * ROWS, 0);
+                    ip[machine] += 2;
+                }
+                break;
+            case RETURN:
+                {
+                    if(stackDepth[machine] > 0) {
+                        ip[machine] = stack[machine * stackStride + --stackDepth[machine]];
+                    }
+                }
+                break;
+            case CALL:
+                {
+                    if(stackDepth[machine] == stackStride) {
+                        growStacks();
+                    }
+                    stack[machine * stackStride + stackDepth[machine]++] = ip[machine] + 2;
+                    ip[machine] = opcode & 0xfff;
+                }
+                break;
+            case JUMP:
+                {
+                    ip[machine] = opcode & 0xfff;
+                }
+                break;
+            case SKIP_EQUAL_IMM:
+                {
+                    ip[machine] += regs[(opcode >> 8 & 0xf) * count + machine] == (opcode & 0xff) ? 4 : 2;
+                }
+                break;
+            case SKIP_NOT_EQUAL_IMM:
+                {
+                    ip[machine] += regs[(opcode >> 8 & 0xf) * count + machine] != (opcode & 0xff) ? 4 : 2;
+                }
+                break;
+            case SKIP_EQUAL_REG:
+                {
+                    ip[machine] += regs[(opcode >> 8 & 0xf) * count + machine] == regs[(opcode >> 4 & 0xf) * count + machine] ? 4 : 2;
+                }
+                break;
+            case SKIP_NOT_EQUAL_REG:
+                {
+                    ip[machine] += regs[(opcode >> 8 & 0xf) * count + machine] != regs[(opcode >> 4 & 0xf) * count + machine] ? 4 : 2;
+                }
+                break;
+            case LOAD_IMM:
+                {
+                    regs[(opcode >> 8 & 0xf) * count + machine] = opcode & 0xff;
+                    ip[machine] += 2;
+                }
+                break;
+            case ADD_IMM:
+                {
+                    int x = (opcode >> 8 & 0xf) * count + machine;
+                    regs[x] = (regs[x] + opcode) & 0xff;
+                    ip[machine] += 2;
+                }
+                break;
+            case MOVE:
+                {
+                    regs[(opcode >> 8 & 0xf) * count + machine] = regs[(opcode >> 4 & 0xf) * count + machine];
+                    ip[machine] += 2;
+                }
+                break;
+            case OR:
+                {
+                    regs[(opcode >> 8 & 0xf) * count + machine] |= regs[(opcode >> 4 & 0xf) * count + machine];
+                    ip[machine] += 2;
+                }
+                break;
+            case AND:
+                {
+                    regs[(opcode >> 8 & 0xf) * count + machine] &= regs[(opcode >> 4 & 0xf) * count + machine];
+                    ip[machine] += 2;
+                }
+                break;
+            case XOR:
+                {
+                    regs[(opcode >> 8 & 0xf) * count + machine] ^= regs[(opcode >> 4 & 0xf) * count + machine];
+                    ip[machine] += 2;
+                }
+                break;
+            case ADD:
+                {
+                    int x = (opcode >> 8 & 0xf) * count + machine;
+                    int result = regs[x] + regs[(opcode >> 4 & 0xf) * count + machine];
+                    regs[f + machine] = result > 0xff ? 1 : 0;
+                    regs[x] = result & 0xff;
+                    ip[machine] += 2;
+                }
+                break;
+            case SUB:
+                {
+                    int x = (opcode >> 8 & 0xf) * count + machine;
+                    int result = regs[x] - regs[(opcode >> 4 & 0xf) * count + machine];
+                    regs[f + machine] = result < 0 ? 1 : 0;
+                    regs[x] = result & 0xff;
+                    ip[machine] += 2;
+                }
+                break;
+            case SHIFT_RIGHT:
+                {
+                    int x = (opcode >> 8 & 0xf) * count + machine;
+                    regs[f + machine] = regs[x] & 1;
+                    regs[x] = regs[x] >>> 1;
+                    ip[machine] += 2;
+                }
+                break;
+            case SUB_REVERSE:
+                {
+                    int x = (opcode >> 8 & 0xf) * count + machine;
+                    int result = regs[(opcode >> 4 & 0xf) * count + machine] - regs[x];
+                    regs[f + machine] = result < 0 ? 1 : 0;
+                    regs[x] = result & 0xff;
+                    ip[machine] += 2;
+                }
+                break;
+            case SHIFT_LEFT:
+                {
+                    int x = (opcode >> 8 & 0xf) * count + machine;
+                    int vx = regs[x];
+                    regs[f + machine] = vx >> 7;
+                    regs[x] = (vx << 1) & 0xfe;
+                    ip[machine] += 2;
+                }
+                break;
+            case LOAD_I:
+                {
+                    regI[machine] = opcode & 0xfff;
+                    ip[machine] += 2;
+                }
+                break;
+            case JUMP_V0:
+                {
+                    ip[machine] = regs[machine] + (opcode & 0xfff);
+                }
+                break;
+            case RANDOM:
+                {
+                    regs[(opcode >> 8 & 0xf) * count + machine] = nextRandom(machine) & opcode & 0xff;
+                    ip[machine] += 2;
+                }
+                break;
+            case DRAW:
+                draw(machine, opcode);
+                break;
+            case SKIP_KEY:
+                {
+                    int key = regs[(opcode >> 8 & 0xf) * count + machine];
+                    ip[machine] += key < 16 && (keypad[machine] >> key & 1) != 0 ? 4 : 2;
+                }
+                break;
+            case SKIP_NOT_KEY:
+                {
+                    int key = regs[(opcode >> 8 & 0xf) * count + machine];
+                    ip[machine] += key < 16 && (keypad[machine] >> key & 1) != 0 ? 2 : 4;
+                }
+                break;
+            case GET_DELAY:
+                {
+                    regs[(opcode >> 8 & 0xf) * count + machine] = delayTimer[machine];
+                    ip[machine] += 2;
+                }
+                break;
+            case GET_KEY:
+                {
+                    int keys = keypad[machine];
+                    if(keys != 0) {
+                        regs[(opcode >> 8 & 0xf) * count + machine] = Integer.numberOfTrailingZeros(keys);
+                        ip[machine] += 2;
+                    }
+                }
+                break;
+            case SET_DELAY:
+                {
+                    delayTimer[machine] = regs[(opcode >> 8 & 0xf) * count + machine];
+                    ip[machine] += 2;
+                }
+                break;
+            case SET_SOUND:
+                {
+                    soundTimer[machine] = regs[(opcode >> 8 & 0xf) * count + machine];
+                    ip[machine] += 2;
+                }
+                break;
+            case ADD_I:
+                {
+                    int value = regI[machine] + regs[(opcode >> 8 & 0xf) * count + machine];
+                    regs[f + machine] = value > 0xfff ? 1 : 0;
+                    regI[machine] = value;
+                    ip[machine] += 2;
+                }
+                break;
+            case SPRITE:
+                {
+                    regI[machine] = (opcode >> 8 & 0xf) * 5;
+                    ip[machine] += 2;
+                }
+                break;
+            case BCD:
+                {
+                    int address = regI[machine];
+                    if(address < 0 || address + 3 > MEMORY) {
+                        fault(machine, String.format("Memory access outside of memory at %03X", address));
+                        return;
+                    }
+                    int reg = regs[(opcode >> 8 & 0xf) * count + machine];
+                    int base = machine * MEMORY_STRIDE + address;
+                    memory[base] = (byte)(reg / 100);
+                    memory[base + 1] = (byte)(reg / 10 % 10);
+                    memory[base + 2] = (byte)(reg % 10);
+                    markDirty(machine, address, 3);
+                    ip[machine] += 2;
+                }
+                break;
+            case STORE:
+                {
+                    int address = regI[machine];
+                    int x = opcode >> 8 & 0xf;
+                    if(x > 0 && (address < 0 || address + x > MEMORY)) {
+                        fault(machine, String.format("Memory access outside of memory at %03X", address));
+                        return;
+                    }
+                    // registers up to X exclusive, like in instructions.spec
+                    for(int n=0; n < x; ++n) {
+                        memory[machine * MEMORY_STRIDE + address + n] = (byte)regs[n * count + machine];
+                    }
+                    if(x > 0) {
+                        markDirty(machine, address, x);
+                    }
+                    ip[machine] += 2;
+                }
+                break;
+            case LOAD:
+                {
+                    int address = regI[machine];
+                    int x = opcode >> 8 & 0xf;
+                    if(x > 0 && (address < 0 || address + x > MEMORY)) {
+                        fault(machine, String.format("Memory access outside of memory at %03X", address));
+                        return;
+                    }
+                    for(int n=0; n < x; ++n) {
+                        regs[n * count + machine] = memory[machine * MEMORY_STRIDE + address + n] & 0xff;
+                    }
+                    ip[machine] += 2;
+                }
+                break;
+            default:
+                {
+                    fault(machine, String.format("Cannot decode instruction %04X at %03X", opcode, ip[machine]));
+                }
+        }
+    }
+
+
+    private void draw(int machine, int opcode) {
+        int x = regs[(opcode >> 8 & 0xf) * count + machine];
+        int y = regs[(opcode >> 4 & 0xf) * count + machine];
+        int n = opcode & 0xf;
+        int address = regI[machine];
+        if(n > 0 && (address < 0 || address + n > MEMORY)) {
+            fault(machine, String.format("Memory access outside of memory at %03X", address));
+            return;
+        }
+        // collision check of instructions.spec never fires, VF is always cleared
+        for(int i=0; i < n && y + i < ROWS && x < 64; ++i) {
+            int sprite = memory[machine * MEMORY_STRIDE + address + i] & 0xff;
+            // bit 7 of sprite is the leftmost pixel which is stored in the lowest bit of the row
+            long row = (long)(Integer.reverse(sprite) >>> 24) << x;
+            framebuffer[machine * ROWS + y + i] ^= row;
+        }
+        regs[15 * count + machine] = 0;
+        ip[machine] += 2;
+    }
+
+    private static byte[] createKindTable() {
+        byte[] table = new byte[0x10000];
+        for(int opcode=0; opcode < 0x10000; ++opcode) {
+            table[opcode] = (byte)classify(opcode);
+        }
+        return table;
+    }
+
+    private static int classify(int opcode) {
+        int n = opcode & 0xf;
+        int y = opcode >> 4 & 0xf;
+        int nn = opcode & 0xff;
+        switch(opcode >> 12) {
+            case 0x0:
+                if((opcode & 0xfff) == 0x0E0) {
+                    return CLEAR;
+                }
+                return (opcode & 0xfff) == 0x0EE ? RETURN : CALL;
+            case 0x1: return JUMP;
+            case 0x2: return CALL;
+            case 0x3: return SKIP_EQUAL_IMM;
+            case 0x4: return SKIP_NOT_EQUAL_IMM;
+            case 0x5: return n == 0 ? SKIP_EQUAL_REG : INVALID;
+            case 0x6: return LOAD_IMM;
+            case 0x7: return ADD_IMM;
+            case 0x8:
+                switch(n) {
+                    case 0x0: return MOVE;
+                    case 0x1: return OR;
+                    case 0x2: return AND;
+                    case 0x3: return XOR;
+                    case 0x4: return ADD;
+                    case 0x5: return SUB;
+                    case 0x6: return y == 0 ? SHIFT_RIGHT : INVALID;
+                    case 0x7: return SUB_REVERSE;
+                    case 0xE: return y == 0 ? SHIFT_LEFT : INVALID;
+                    default: return INVALID;
+                }
+            case 0x9: return n == 0 ? SKIP_NOT_EQUAL_REG : INVALID;
+            case 0xA: return LOAD_I;
+            case 0xB: return JUMP_V0;
+            case 0xC: return RANDOM;
+            case 0xD: return DRAW;
+            case 0xE:
+                if(nn == 0x9E) {
+                    return SKIP_KEY;
+                }
+                return nn == 0xA1 ? SKIP_NOT_KEY : INVALID;
+            default:
+                switch(nn) {
+                    case 0x07: return GET_DELAY;
+                    case 0x0A: return GET_KEY;
+                    case 0x15: return SET_DELAY;
+                    case 0x18: return SET_SOUND;
+                    case 0x1E: return ADD_I;
+                    case 0x29: return SPRITE;
+                    case 0x33: return BCD;
+                    case 0x55: return STORE;
+                    case 0x65: return LOAD;
+                    default: return INVALID;
+                }
+        }
+    }
+}
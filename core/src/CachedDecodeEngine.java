@@ -0,0 +1,50 @@
+/**
+ * engine decoding every opcode only once, instruction objects depend only on opcode
+ * so they are cached by opcode and self-modifying code needs no invalidation
+ */
+public class CachedDecodeEngine implements ExecutionEngine {
+    private Disassembler disassembler;
+    private Instruction[] cache = new Instruction[0x10000];
+    private boolean[] invalid = new boolean[0x10000];
+
+    /**
+     * create engine
+     * @param disassembler disassembler used to decode instruction
+     */
+    public CachedDecodeEngine(Disassembler disassembler) {
+        this.disassembler = disassembler;
+    }
+
+    /**
+     * execute instruction at ip, decoding it only when opcode is executed for the first time
+     * @param state virtual machine state
+     * @throws VirtualMachineState.VMException thrown on executing error
+     */
+    @Override
+    public void step(VirtualMachineState state) throws VirtualMachineState.VMException {
+        short opcode = state.memoryGetShort(state.getIp());
+        int index = opcode & 0xffff;
+        Instruction instruction = cache[index];
+        if(instruction == null) {
+            if(invalid[index]) {
+                throw VirtualMachineState.VMException.cannotDecode(opcode, state);
+            }
+            instruction = disassembler.decodeInstruction(opcode).orElse(null);
+            if(instruction == null) {
+                invalid[index] = true;
+                throw VirtualMachineState.VMException.cannotDecode(opcode, state);
+            }
+            cache[index] = instruction;
+        }
+        instruction.execute(state);
+    }
+
+    /**
+     * get name of the engine
+     * @return engine name
+     */
+    @Override
+    public String getName() {
+        return "cached";
+    }
+}
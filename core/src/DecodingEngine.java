@@ -0,0 +1,40 @@
+import java.util.Optional;
+
+/**
+ * engine decoding every executed opcode to instruction object
+ */
+public class DecodingEngine implements ExecutionEngine {
+    private Disassembler disassembler;
+
+    /**
+     * create engine
+     * @param disassembler disassembler used to decode instruction
+     */
+    public DecodingEngine(Disassembler disassembler) {
+        this.disassembler = disassembler;
+    }
+
+    /**
+     * decode and execute instruction at ip
+     * @param state virtual machine state
+     * @throws VirtualMachineState.VMException thrown on executing error
+     */
+    @Override
+    public void step(VirtualMachineState state) throws VirtualMachineState.VMException {
+        short opcode = state.memoryGetShort(state.getIp());
+        Optional<Instruction> decoded = disassembler.decodeInstruction(opcode);
+        if(!decoded.isPresent()) {
+            throw VirtualMachineState.VMException.cannotDecode(opcode, state);
+        }
+        decoded.get().execute(state);
+    }
+
+    /**
+     * get name of the engine
+     * @return engine name
+     */
+    @Override
+    public String getName() {
+        return "decode";
+    }
+}
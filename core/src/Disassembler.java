@@ -8,13 +8,25 @@ import java.util.Optional;
 public class Disassembler {
 
     private ArrayList<InstructionFactoryInterface> factories;
+    private byte[] decodeTable;
 
     /**
      * create disassembler from instruction factories which take opcode
      * @param factories_ list of instruction
      */
     public Disassembler(ArrayList<InstructionFactoryInterface> factories_) {
+        this(factories_, null);
+    }
+
+    /**
+     * create disassembler from instruction factories and table mapping opcode to factory index,
+     * so decoding does not have to try every factory
+     * @param factories_ list of instruction
+     * @param decodeTable_ array of 0x10000 factory indexes (-1 for invalid opcode)
+     */
+    public Disassembler(ArrayList<InstructionFactoryInterface> factories_, byte[] decodeTable_) {
         this.factories = factories_;
+        this.decodeTable = decodeTable_;
     }
 
     /**
@@ -23,6 +35,10 @@ public class Disassembler {
      * @return decoded instruction or empty
      */
     public Optional<Instruction> decodeInstruction(short opcode) {
+        if(decodeTable != null) {
+            int index = decodeTable[opcode & 0xffff];
+            return index < 0 ? Optional.empty() : factories.get(index).fromOpcode(opcode);
+        }
         for (InstructionFactoryInterface factory : factories) {
             Optional<Instruction> decoded = factory.fromOpcode(opcode);
             if(decoded.isPresent()) {
@@ -64,14 +80,11 @@ public class Disassembler {
      * @return array of possible next ip values
      */
     private ArrayList<Integer> nextBranches(short value, int ip) {
-        for(InstructionFactoryInterface factory : factories) {
-            Optional<Instruction> decoded = factory.fromOpcode(value);
-            if(decoded.isPresent()) {
-                Instruction instr = decoded.get();
-                InstructionVisitor.NextIpVisitor visitor = new InstructionVisitor.NextIpVisitor(ip);
-                instr.accept(visitor);
-                return visitor.getIps();
-            }
+        Optional<Instruction> decoded = decodeInstruction(value);
+        if(decoded.isPresent()) {
+            NextIpVisitor visitor = new NextIpVisitor(ip);
+            decoded.get().accept(visitor);
+            return visitor.getIps();
         }
         return new ArrayList<>();
     }
@@ -0,0 +1,59 @@
+/**
+ * running virtual machine which can be controlled from other threads
+ */
+public interface EmulatorSession {
+    /**
+     * state of session
+     */
+    enum Status {
+        Running,
+        Paused,
+        Stopped,
+        Faulted
+    }
+
+    /**
+     * get virtual machine, it may be read or modified only while session is paused
+     * @return virtual machine
+     */
+    VirtualMachineState getState();
+
+    /**
+     * get status
+     * @return current status
+     */
+    Status getStatus();
+
+    /**
+     * get reason of fault
+     * @return error message or null when session did not fault
+     */
+    String getFault();
+
+    /**
+     * get number of emulated frames
+     * @return frames
+     */
+    long getFrames();
+
+    /**
+     * set pressed keys, may be called from any thread, the machine sees them from the next frame
+     * @param keypad bitmask of pressed keys
+     */
+    void setKeypad(int keypad);
+
+    /**
+     * stop running the session, waits until the frame being executed is finished
+     */
+    void pause();
+
+    /**
+     * continue paused session, frames missed while paused are not emulated
+     */
+    void resume();
+
+    /**
+     * stop the session for good
+     */
+    void stop();
+}
@@ -0,0 +1,38 @@
+/**
+ * strategy executing instructions of virtual machine, all engines have to behave exactly the same
+ */
+public interface ExecutionEngine {
+    /**
+     * execute instruction at ip
+     * @param state virtual machine state
+     * @throws VirtualMachineState.VMException thrown on executing error
+     */
+    void step(VirtualMachineState state) throws VirtualMachineState.VMException;
+
+    /**
+     * get name of the engine
+     * @return name used on command line
+     */
+    String getName();
+
+    /**
+     * names of all engines
+     */
+    String[] NAMES = { "decode", "cached", "switch" };
+
+    /**
+     * create engine by name
+     * @param name one of NAMES
+     * @param disassembler disassembler used by engines decoding instruction objects
+     * @return engine
+     * @throws IllegalArgumentException thrown on unknown name
+     */
+    static ExecutionEngine byName(String name, Disassembler disassembler) {
+        switch(name) {
+            case "decode": return new DecodingEngine(disassembler);
+            case "cached": return new CachedDecodeEngine(disassembler);
+            case "switch": return new SwitchEngine();
+            default: throw new IllegalArgumentException("Unknown engine " + name);
+        }
+    }
+}
@@ -0,0 +1,234 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * keypad input recorded per emulated frame, replaying it on the same ROM with the same seed and instructions per frame
+ * reproduces the run exactly, file format (big endian): magic "C8MV", version (short), ROM hash (long, FNV-1a),
+ * random seed (long), instructions per frame (int), frames (int), framebuffer and registers hashes of the final state
+ * (long each, StateHash), number of runs (int) and runs of equal keypad masks (short mask, int frames each)
+ */
+public class InputMovie {
+    public static final int MAGIC = 0x43384D56;
+    public static final int VERSION = 1;
+    private static final int HEADER_SIZE = 4 + 2 + 8 + 8 + 4 + 4 + 8 + 8 + 4;
+    private static final int RUN_SIZE = 2 + 4;
+
+    private final long romHash;
+    private final long seed;
+    private final int instructionsPerFrame;
+    private int frames = 0;
+    private long framebufferHash = 0;
+    private long registersHash = 0;
+
+    private int runs = 0;
+    private int[] runMasks = new int[16];
+    // first frame of every run, the next run (or frames) ends it
+    private int[] runStarts = new int[16];
+
+    /**
+     * create empty movie
+     * @param rom bytecode the movie is recorded on
+     * @param seed random seed of machine
+     * @param instructionsPerFrame instructions per frame (timers tick once per frame)
+     */
+    public InputMovie(byte[] rom, long seed, int instructionsPerFrame) {
+        this(hashRom(rom), seed, instructionsPerFrame);
+    }
+
+    private InputMovie(long romHash, long seed, int instructionsPerFrame) {
+        this.romHash = romHash;
+        this.seed = seed;
+        this.instructionsPerFrame = instructionsPerFrame;
+    }
+
+    /**
+     * hash ROM so movie is not replayed on another program
+     * @param rom bytecode
+     * @return FNV-1a hash
+     */
+    public static long hashRom(byte[] rom) {
+        StateHash hash = new StateHash();
+        for(byte b : rom) {
+            hash.addByte(b);
+        }
+        return hash.get();
+    }
+
+    /**
+     * record keypad of the next frame, called once per frame before it is emulated
+     * @param keypad bitmask of pressed keys
+     */
+    public void record(int keypad) {
+        keypad &= 0xffff;
+        if(runs == 0 || runMasks[runs - 1] != keypad) {
+            if(runs == runMasks.length) {
+                runMasks = Arrays.copyOf(runMasks, runs * 2);
+                runStarts = Arrays.copyOf(runStarts, runs * 2);
+            }
+            runMasks[runs] = keypad;
+            runStarts[runs] = frames;
+            ++runs;
+        }
+        ++frames;
+    }
+
+    /**
+     * store hashes of machine after the last recorded frame, replay compares them with matches
+     * @param state virtual machine after the last frame
+     */
+    public void finish(VirtualMachineState state) {
+        framebufferHash = StateHash.framebuffer(state);
+        registersHash = StateHash.registers(state);
+    }
+
+    /**
+     * get keypad during frame
+     * @param frame frame number starting from 0
+     * @return bitmask of pressed keys, 0 outside of the movie
+     */
+    public int getKeypad(int frame) {
+        if(frame < 0 || frame >= frames) {
+            return 0;
+        }
+        int index = Arrays.binarySearch(runStarts, 0, runs, frame);
+        return runMasks[index < 0 ? -index - 2 : index];
+    }
+
+    /**
+     * create machine for replay, seeded like the recorded one
+     * @param rom bytecode
+     * @param engine engine executing instructions
+     * @return machine before the first frame
+     * @throws IllegalArgumentException when ROM differs from the recorded one
+     */
+    public VirtualMachineState createMachine(byte[] rom, ExecutionEngine engine) {
+        if(hashRom(rom) != romHash) {
+            throw new IllegalArgumentException("Movie was recorded on another ROM");
+        }
+        VirtualMachineState state = new VirtualMachineState(rom, engine);
+        state.setRandomSeed(seed);
+        return state;
+    }
+
+    /**
+     * replay whole movie as fast as possible
+     * @param rom bytecode
+     * @param engine engine executing instructions
+     * @return machine after the last frame
+     * @throws IllegalArgumentException when ROM differs from the recorded one
+     * @throws VirtualMachineState.VMException thrown when ROM executes invalid instruction
+     */
+    public VirtualMachineState replay(byte[] rom, ExecutionEngine engine) throws VirtualMachineState.VMException {
+        VirtualMachineState state = createMachine(rom, engine);
+        for(int run=0; run < runs; ++run) {
+            state.setKeypad(runMasks[run]);
+            int end = run + 1 < runs ? runStarts[run + 1] : frames;
+            for(int frame=runStarts[run]; frame < end; ++frame) {
+                state.runFrame(instructionsPerFrame);
+            }
+        }
+        return state;
+    }
+
+    /**
+     * compare machine after replay with the recorded final state
+     * @param state virtual machine after the last frame
+     * @return true when framebuffer and registers hashes match
+     */
+    public boolean matches(VirtualMachineState state) {
+        return StateHash.framebuffer(state) == framebufferHash && StateHash.registers(state) == registersHash;
+    }
+
+    /**
+     * serialize movie
+     * @return movie file content
+     */
+    public byte[] save() {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + runs * RUN_SIZE);
+        buffer.putInt(MAGIC);
+        buffer.putShort((short)VERSION);
+        buffer.putLong(romHash);
+        buffer.putLong(seed);
+        buffer.putInt(instructionsPerFrame);
+        buffer.putInt(frames);
+        buffer.putLong(framebufferHash);
+        buffer.putLong(registersHash);
+        buffer.putInt(runs);
+        for(int run=0; run < runs; ++run) {
+            buffer.putShort((short)runMasks[run]);
+            buffer.putInt((run + 1 < runs ? runStarts[run + 1] : frames) - runStarts[run]);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * deserialize movie
+     * @param data movie file content
+     * @return movie
+     * @throws IllegalArgumentException when data is not a valid movie
+     */
+    public static InputMovie load(byte[] data) {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        if(data.length < HEADER_SIZE || buffer.getInt() != MAGIC) {
+            throw new IllegalArgumentException("Not an input movie");
+        }
+        int version = buffer.getShort();
+        if(version != VERSION) {
+            throw new IllegalArgumentException("Unsupported input movie version " + version);
+        }
+        InputMovie movie = new InputMovie(buffer.getLong(), buffer.getLong(), buffer.getInt());
+        int frames = buffer.getInt();
+        movie.framebufferHash = buffer.getLong();
+        movie.registersHash = buffer.getLong();
+        int runs = buffer.getInt();
+        if(runs < 0 || buffer.remaining() != (long)runs * RUN_SIZE) {
+            throw new IllegalArgumentException("Input movie truncated");
+        }
+        for(int run=0; run < runs; ++run) {
+            int mask = buffer.getShort() & 0xffff;
+            int length = buffer.getInt();
+            if(length <= 0) {
+                throw new IllegalArgumentException("Invalid run length " + length);
+            }
+            for(int i=0; i < length; ++i) {
+                movie.record(mask);
+            }
+        }
+        if(movie.frames != frames) {
+            throw new IllegalArgumentException("Input movie frame count mismatch");
+        }
+        return movie;
+    }
+
+    /**
+     * get number of recorded frames
+     * @return frames
+     */
+    public int getFrames() {
+        return frames;
+    }
+
+    /**
+     * get number of keypad runs, one run per keypad change
+     * @return runs
+     */
+    public int getRuns() {
+        return runs;
+    }
+
+    /**
+     * get random seed of recorded machine
+     * @return seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * get instructions per frame of recorded machine
+     * @return instructions per frame
+     */
+    public int getInstructionsPerFrame() {
+        return instructionsPerFrame;
+    }
+}
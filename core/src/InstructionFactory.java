@@ -0,0 +1,164 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Optional;
+
+/**
+ * class defining factory of instruction
+ */
+public class InstructionFactory implements InstructionFactoryInterface{
+    /**
+     * constructor of instruction taking tokenized assembly
+     */
+    public interface AssemblyConstructor {
+        Instruction create(String[] assembly);
+    }
+
+    /**
+     * constructor of instruction taking opcode
+     */
+    public interface OpcodeConstructor {
+        Instruction create(short opcode);
+    }
+
+    private final AssemblyConstructor assemblyCtor;
+    private final OpcodeConstructor opcodeCtor;
+
+    private int opcodeMask;
+    private int opcodeValue;
+    private String mnemonic;
+
+    /**
+     * create factory from constructors and static properties of instruction class
+     * (instances are created by generated InstructionRegistry)
+     * @param assemblyCtor constructor taking tokenized assembly
+     * @param opcodeCtor constructor taking opcode
+     * @param opcodeMask mask of instruction type
+     * @param opcodeValue opcode of instruction with all arguments cleared
+     * @param mnemonic mnemonic of instruction
+     */
+    public InstructionFactory(AssemblyConstructor assemblyCtor, OpcodeConstructor opcodeCtor, int opcodeMask, int opcodeValue, String mnemonic) {
+        this.assemblyCtor = assemblyCtor;
+        this.opcodeCtor = opcodeCtor;
+        this.opcodeMask = opcodeMask;
+        this.opcodeValue = opcodeValue;
+        this.mnemonic = mnemonic;
+    }
+
+    /**
+     * create instruction given parsed assembly
+     * @param assembly tokenized assembly
+     * @return instruction object or empty on error
+     */
+    @Override
+    public Optional<Instruction> fromAssembly(String[] assembly) {
+        if(!assembly[0].equals(mnemonic)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(assemblyCtor.create(assembly));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * create instruction given opcode from bytecode
+     * @param opcode opcode from bytecode
+     * @return instruction object or empty on error
+     */
+    @Override
+    public Optional<Instruction> fromOpcode(short opcode) {
+        if((opcode & opcodeMask) == opcodeValue) {
+            return Optional.of(opcodeCtor.create(opcode));
+        } else {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * used to get number of bits in opcode mask which are set to determine the correct order in which opcode is checked against instructions
+     * (before you try with mask 0xf000 you should try with 0xff00 because 0xf000 will match when 0xf000 matches
+     * so 0xff00 should be checked first
+     * @return number of bits set
+     */
+    @Override
+    public int getOpcodeMaskAccuracy() {
+        return Integer.bitCount(opcodeMask);
+    }
+
+    private static Optional<ArrayList<InstructionFactoryInterface>> factoriesByIndex = Optional.empty();
+    private static Optional<HashMap<String, InstructionFactoryInterface>> factoriesByMnemonic = Optional.empty();
+    private static Optional<byte[]> decodeTable = Optional.empty();
+
+    /**
+     * get factories by index (useful when disassembling)
+     * @return factories as array
+     * @throws Exception may be thrown when setting up factories
+     */
+    public static ArrayList<InstructionFactoryInterface> factoriesByIndex() throws Exception {
+        if(factoriesByIndex.isPresent()) {
+            return factoriesByIndex.get();
+        }
+        setupFactories();
+        return factoriesByIndex.get();
+    }
+
+    /**
+     * get factories by mnemonic (useful when assembling)
+     * @return hashmap of factories (mnemonic -> factory)
+     * @throws Exception may be thrown when setting up factories
+     */
+    public static HashMap<String, InstructionFactoryInterface> factoriesByMnemonic() throws Exception {
+        if(factoriesByMnemonic.isPresent()) {
+            return factoriesByMnemonic.get();
+        }
+        setupFactories();
+        return factoriesByMnemonic.get();
+    }
+
+    /**
+     * get table mapping every opcode to index of its factory in factoriesByIndex (useful when disassembling)
+     * @return array of 0x10000 indexes, -1 for opcodes which are not valid instructions
+     * @throws Exception may be thrown when setting up factories
+     */
+    public static byte[] decodeTable() throws Exception {
+        if(decodeTable.isPresent()) {
+            return decodeTable.get();
+        }
+        setupFactories();
+        return decodeTable.get();
+    }
+
+    /**
+     * used to get mnemonic of this factory
+     * @return mnemonic as string
+     */
+    @Override
+    public String getMnemonic() {
+        return mnemonic;
+    }
+
+    /**
+     * get opcode of current factory
+     * @return opcode as short
+     */
+    @Override
+    public short getOpcode() {
+        return (short)opcodeValue;
+    }
+
+    /**
+     * sets up factories for all instructions
+     * @throws Exception
+     */
+    private static void setupFactories() throws Exception {
+        ArrayList<InstructionFactoryInterface> factoriesList = InstructionRegistry.createFactories();
+        HashMap<String, InstructionFactoryInterface> factoriesHashMap = new HashMap<>();
+        factoriesList.forEach(
+                factory -> factoriesHashMap.put(factory.getMnemonic(), factory)
+        );
+        factoriesByMnemonic = Optional.of(factoriesHashMap);
+        factoriesByIndex = Optional.of(factoriesList);
+        decodeTable = Optional.of(InstructionRegistry.createDecodeTable());
+    }
+}
@@ -0,0 +1,188 @@
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * history of recorded frames for rewinding, the newest frame is kept as full SaveState and every older frame as
+ * delta against the next one (XOR of both save states with run-length encoded zero runs), deltas are kept in
+ * ring buffer and the oldest are dropped when memory budget is exceeded,
+ * delta format: length of older save state (int) followed by pairs of zero run length and literal length
+ * (both varints) with literal XOR bytes
+ */
+public class RewindBuffer {
+    public static final long DEFAULT_BUDGET = 16L * 1024 * 1024;
+    public static final int FRAMES_PER_MINUTE = 60 * 60;
+    // array header and reference in ring buffer of every delta
+    private static final int DELTA_OVERHEAD = 16 + 8;
+
+    private final long budget;
+    private final ArrayDeque<byte[]> deltas = new ArrayDeque<>();
+    private long deltaBytes = 0;
+    private long recordedFrames = 0;
+    private long recordedBytes = 0;
+
+    // bytes after length of save state are always zero, so states of different lengths can be XORed
+    private byte[] current = new byte[0];
+    private int currentLength = 0;
+    private byte[] next = new byte[0];
+    private byte[] encoded = new byte[0];
+
+    /**
+     * create empty buffer
+     * @param budget maximum bytes used by history
+     */
+    public RewindBuffer(long budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * record frame, called once per emulated frame
+     * @param state virtual machine after the frame
+     */
+    public void record(VirtualMachineState state) {
+        int length = SaveState.size(state);
+        if(next.length < length || current.length < length) {
+            // both arrays have the same capacity so XOR never reads past one of them
+            int capacity = Math.max(length, current.length);
+            next = Arrays.copyOf(next, capacity);
+            current = Arrays.copyOf(current, capacity);
+        }
+        SaveState.write(state, ByteBuffer.wrap(next, 0, length));
+        if(currentLength > 0) {
+            byte[] delta = encode(next, length);
+            deltas.addLast(delta);
+            deltaBytes += delta.length + DELTA_OVERHEAD;
+            recordedBytes += delta.length + DELTA_OVERHEAD;
+            ++recordedFrames;
+            while(getMemoryUsage() > budget && !deltas.isEmpty()) {
+                deltaBytes -= deltas.removeFirst().length + DELTA_OVERHEAD;
+            }
+        }
+        byte[] swap = current;
+        current = next;
+        next = swap;
+        Arrays.fill(next, 0, Math.min(currentLength, next.length), (byte)0);
+        currentLength = length;
+    }
+
+    /**
+     * go back one recorded frame and restore it to machine, keypad is not restored so keys held in the past frame
+     * do not stay pressed after rewinding
+     * @param state virtual machine
+     * @return false when there is no older frame
+     */
+    public boolean rewind(VirtualMachineState state) {
+        if(deltas.isEmpty()) {
+            return false;
+        }
+        byte[] delta = deltas.removeLast();
+        deltaBytes -= delta.length + DELTA_OVERHEAD;
+        decode(delta);
+        SaveState.read(ByteBuffer.wrap(current, 0, currentLength), state, false);
+        return true;
+    }
+
+    /**
+     * drop whole history
+     */
+    public void clear() {
+        deltas.clear();
+        deltaBytes = 0;
+        Arrays.fill(current, (byte)0);
+        currentLength = 0;
+    }
+
+    /**
+     * get number of frames which can be rewound
+     * @return frames
+     */
+    public int getFrames() {
+        return deltas.size();
+    }
+
+    /**
+     * get memory used by history
+     * @return bytes
+     */
+    public long getMemoryUsage() {
+        return deltaBytes + current.length + next.length;
+    }
+
+    /**
+     * get average memory needed for one minute of history (60 frames per second) since creation
+     * @return bytes per minute
+     */
+    public long getBytesPerMinute() {
+        return recordedFrames == 0 ? 0 : recordedBytes * FRAMES_PER_MINUTE / recordedFrames;
+    }
+
+    /**
+     * encode delta restoring current state from next state
+     */
+    private byte[] encode(byte[] newer, int newerLength) {
+        int length = Math.max(currentLength, newerLength);
+        if(encoded.length < 4 + length * 2 + 16) {
+            encoded = new byte[4 + length * 2 + 16];
+        }
+        ByteBuffer out = ByteBuffer.wrap(encoded);
+        out.putInt(currentLength);
+        int position = 0;
+        while(position < length) {
+            int start = position;
+            while(position < length && current[position] == newer[position]) {
+                ++position;
+            }
+            int zeros = position - start;
+            start = position;
+            while(position < length && current[position] != newer[position]) {
+                ++position;
+            }
+            putVarint(out, zeros);
+            putVarint(out, position - start);
+            for(int i=start; i < position; ++i) {
+                out.put((byte)(current[i] ^ newer[i]));
+            }
+        }
+        return Arrays.copyOf(encoded, out.position());
+    }
+
+    /**
+     * apply delta to current state turning it into the older state
+     */
+    private void decode(byte[] delta) {
+        ByteBuffer in = ByteBuffer.wrap(delta);
+        int olderLength = in.getInt();
+        if(current.length < olderLength) {
+            current = Arrays.copyOf(current, olderLength);
+            next = Arrays.copyOf(next, olderLength);
+        }
+        int position = 0;
+        while(in.hasRemaining()) {
+            position += getVarint(in);
+            int literals = getVarint(in);
+            for(int i=0; i < literals; ++i) {
+                current[position++] ^= in.get();
+            }
+        }
+        currentLength = olderLength;
+    }
+
+    private static void putVarint(ByteBuffer out, int value) {
+        while(value >= 0x80) {
+            out.put((byte)(value | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte)value);
+    }
+
+    private static int getVarint(ByteBuffer in) {
+        int value = 0;
+        for(int shift=0; ; shift += 7) {
+            int b = in.get();
+            value |= (b & 0x7f) << shift;
+            if((b & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+}
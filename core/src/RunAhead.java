@@ -0,0 +1,84 @@
+/**
+ * run-ahead hides input latency of games which react to keypad a few frames late: after every emulated frame the
+ * machine is snapshotted, the next frames are emulated with the current keypad and listeners muted, the last of them
+ * is presented and the machine is restored, so the visible frame is always frames ahead of the real machine,
+ * snapshots are copy-on-write so the cost is mostly the extra emulated frames
+ */
+public class RunAhead {
+    private final int frames;
+    private final long[] presented = new long[VirtualMachineState.SCREEN_HEIGHT];
+    private long extraNanos = 0;
+    private long presentedFrames = 0;
+
+    /**
+     * create run-ahead
+     * @param frames number of frames emulated ahead, 0 presents the real frame
+     */
+    public RunAhead(int frames) {
+        this.frames = frames;
+    }
+
+    /**
+     * get number of frames emulated ahead
+     * @return frames
+     */
+    public int getFrames() {
+        return frames;
+    }
+
+    /**
+     * emulate one real frame with keypad and then run ahead
+     * @param state virtual machine
+     * @param keypad bitmask of pressed keys during the frame
+     * @param instructionsPerFrame instructions per frame (timers tick once per frame)
+     * @return framebuffer to present, valid until the next call
+     * @throws VirtualMachineState.VMException thrown when the real frame executes invalid instruction
+     */
+    public long[] runFrame(VirtualMachineState state, int keypad, int instructionsPerFrame) throws VirtualMachineState.VMException {
+        state.setKeypad(keypad);
+        state.runFrame(instructionsPerFrame);
+        return runAhead(state, instructionsPerFrame);
+    }
+
+    /**
+     * emulate frames ahead of machine and restore it, the machine is left as it was (keypad is not restored,
+     * ahead frames do not change it and keys pressed meanwhile by another thread are kept), a fault in a future frame presents the last frame before it
+     * @param state virtual machine after real frame
+     * @param instructionsPerFrame instructions per frame (timers tick once per frame)
+     * @return framebuffer to present, valid until the next call
+     */
+    public long[] runAhead(VirtualMachineState state, int instructionsPerFrame) {
+        System.arraycopy(state.getFramebuffer(), 0, presented, 0, presented.length);
+        if(frames > 0) {
+            long start = System.nanoTime();
+            VirtualMachineState.Snapshot snapshot = state.snapshot();
+            // frames ahead are thrown away, they must not count as executed
+            long executed = state.getExecutedInstructions();
+            long skipped = state.getSkippedInstructions();
+            state.setListenersMuted(true);
+            try {
+                for(int frame=0; frame < frames; ++frame) {
+                    state.runFrame(instructionsPerFrame);
+                    System.arraycopy(state.getFramebuffer(), 0, presented, 0, presented.length);
+                }
+            } catch (VirtualMachineState.VMException | RuntimeException ignored) {
+                // the real machine faults later or input changes before, present what was emulated
+            } finally {
+                state.restore(snapshot, false);
+                state.setInstructionCounters(executed, skipped);
+                state.setListenersMuted(false);
+            }
+            extraNanos += System.nanoTime() - start;
+        }
+        ++presentedFrames;
+        return presented;
+    }
+
+    /**
+     * get average extra time spent per presented frame by snapshot, frames ahead and restore
+     * @return nanoseconds per frame
+     */
+    public double getExtraNanosPerFrame() {
+        return presentedFrames == 0 ? 0 : (double)extraNanos / presentedFrames;
+    }
+}
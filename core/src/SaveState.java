@@ -0,0 +1,140 @@
+import java.nio.ByteBuffer;
+
+/**
+ * versioned binary save state of whole virtual machine written with ByteBuffer (big endian):
+ * magic "C8ST", version (short), 16 registers (byte each), I (int), ip (int), delay and sound timer (byte each),
+ * keypad (short), random generator state (long), call stack depth (int) and return addresses (short each),
+ * memory (MEMORY_SIZE bytes) and framebuffer (SCREEN_HEIGHT longs),
+ * about 4.4 KB, saving and loading copy memory in bulk and take a few microseconds
+ */
+public class SaveState {
+    public static final int MAGIC = 0x43385354;
+    // version 2 stores xorshift generator state instead of 48 bit LCG state
+    // version 3 stores call stack depth as int, the stack of recursive ROMs grows past 16 bits
+    public static final int VERSION = 3;
+    private static final int RANDOM_OFFSET = 4 + 2 + 16 + 4 + 4 + 1 + 1 + 2;
+    // everything up to call stack depth
+    private static final int HEADER_SIZE = 4 + 2 + 16 + 4 + 4 + 1 + 1 + 2 + 8 + 4;
+    private static final int BODY_SIZE = VirtualMachineState.MEMORY_SIZE + VirtualMachineState.SCREEN_HEIGHT * 8;
+
+    /**
+     * get size of save state of machine
+     * @param state virtual machine
+     * @return size in bytes
+     */
+    public static int size(VirtualMachineState state) {
+        return HEADER_SIZE + state.getCallStackDepth() * 2 + BODY_SIZE;
+    }
+
+    /**
+     * save machine to new array
+     * @param state virtual machine
+     * @return save state
+     */
+    public static byte[] save(VirtualMachineState state) {
+        ByteBuffer buffer = ByteBuffer.allocate(size(state));
+        write(state, buffer);
+        return buffer.array();
+    }
+
+    /**
+     * restore machine from array
+     * @param data save state
+     * @param state virtual machine, it is not modified when save state is invalid
+     * @throws IllegalArgumentException when data is not a valid save state
+     */
+    public static void load(byte[] data, VirtualMachineState state) {
+        read(ByteBuffer.wrap(data), state);
+    }
+
+    /**
+     * write machine at buffer position, registers and timers are stored as 8 bit values like the machine uses them
+     * @param state virtual machine
+     * @param buffer target buffer with at least size(state) bytes remaining
+     */
+    public static void write(VirtualMachineState state, ByteBuffer buffer) {
+        buffer.putInt(MAGIC);
+        buffer.putShort((short)VERSION);
+        for(int n=0; n < 16; ++n) {
+            buffer.put((byte)state.getReg(n));
+        }
+        buffer.putInt(state.getRegI());
+        buffer.putInt(state.getIp());
+        buffer.put((byte)state.getDelayTimerCounter());
+        buffer.put((byte)state.getSoundTimerCounter());
+        buffer.putShort((short)state.getKeypad());
+        buffer.putLong(state.getRandomState());
+        int[] stack = state.getCallStack();
+        buffer.putInt(stack.length);
+        for(int address : stack) {
+            buffer.putShort((short)address);
+        }
+        state.memoryWrite(buffer);
+        for(long row : state.getFramebuffer()) {
+            buffer.putLong(row);
+        }
+    }
+
+    /**
+     * read machine from buffer position, the whole save state is validated before machine is modified
+     * @param buffer source buffer
+     * @param state virtual machine
+     * @throws IllegalArgumentException when buffer does not contain valid save state
+     */
+    public static void read(ByteBuffer buffer, VirtualMachineState state) {
+        read(buffer, state, true);
+    }
+
+    /**
+     * read machine from buffer position, the whole save state is validated before machine is modified
+     * @param buffer source buffer
+     * @param state virtual machine
+     * @param restoreKeypad false keeps keypad of machine (keys held by player now) instead of the saved one
+     * @throws IllegalArgumentException when buffer does not contain valid save state
+     */
+    public static void read(ByteBuffer buffer, VirtualMachineState state, boolean restoreKeypad) {
+        if(buffer.remaining() < HEADER_SIZE) {
+            throw new IllegalArgumentException("Save state truncated");
+        }
+        int start = buffer.position();
+        if(buffer.getInt(start) != MAGIC) {
+            throw new IllegalArgumentException("Not a save state");
+        }
+        int version = buffer.getShort(start + 4);
+        if(version != VERSION) {
+            throw new IllegalArgumentException("Unsupported save state version " + version);
+        }
+        if(buffer.getLong(start + RANDOM_OFFSET) == 0) {
+            throw new IllegalArgumentException("Invalid random generator state");
+        }
+        int depth = buffer.getInt(start + HEADER_SIZE - 4);
+        if(depth < 0 || buffer.remaining() < HEADER_SIZE + depth * 2L + BODY_SIZE) {
+            throw new IllegalArgumentException("Save state truncated");
+        }
+        buffer.position(start + 6);
+        for(int n=0; n < 16; ++n) {
+            state.setReg(n, buffer.get() & 0xff);
+        }
+        state.setRegI(buffer.getInt());
+        state.setIp(buffer.getInt());
+        state.setDelayTimerCounter(buffer.get() & 0xff);
+        state.setSoundTimerCounter(buffer.get() & 0xff);
+        int keypad = buffer.getShort() & 0xffff;
+        if(restoreKeypad) {
+            state.setKeypad(keypad);
+        }
+        state.setRandomState(buffer.getLong());
+        buffer.getInt();
+        int[] stack = new int[depth];
+        for(int i=0; i < depth; ++i) {
+            stack[i] = buffer.getShort() & 0xffff;
+        }
+        state.setCallStack(stack);
+        state.memoryRead(buffer);
+        long[] framebuffer = state.getFramebuffer();
+        for(int y=0; y < framebuffer.length; ++y) {
+            framebuffer[y] = buffer.getLong();
+        }
+        state.updateScreen();
+    }
+}
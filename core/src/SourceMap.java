@@ -0,0 +1,116 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * bidirectional mapping between bytecode offsets and line numbers in assembly
+ */
+public class SourceMap {
+    private int[] lineOfOffset;
+    private int[] lines;
+    private int[] offsets;
+
+    /**
+     * create source map from assembled lines, lines have to be in ascending order
+     * @param codeLength length of the bytecode
+     * @param lines line numbers of lines which generated bytecode
+     * @param offsets offset of the first byte generated by corresponding line
+     */
+    public SourceMap(int codeLength, int[] lines, int[] offsets) {
+        this.lines = lines;
+        this.offsets = offsets;
+        lineOfOffset = new int[codeLength];
+        Arrays.fill(lineOfOffset, -1);
+        for(int i=0; i < lines.length; ++i) {
+            int end = i + 1 < offsets.length ? offsets[i + 1] : codeLength;
+            Arrays.fill(lineOfOffset, offsets[i], end, lines[i]);
+        }
+    }
+
+    /**
+     * get line which generated byte at offset
+     * @param offset offset in bytecode
+     * @return line number or -1 when offset is outside of bytecode
+     */
+    public int getLine(int offset) {
+        if(offset < 0 || offset >= lineOfOffset.length) {
+            return -1;
+        }
+        return lineOfOffset[offset];
+    }
+
+    /**
+     * get offset of the first byte generated by line
+     * @param linen line number in assembly
+     * @return offset in bytecode or -1 when line generated no bytecode
+     */
+    public int getOffset(int linen) {
+        int index = Arrays.binarySearch(lines, linen);
+        if(index < 0) {
+            return -1;
+        }
+        return offsets[index];
+    }
+
+    /**
+     * get offset of the first byte generated by this line or the closest line after it
+     * (useful for placing breakpoints on lines without code)
+     * @param linen line number in assembly
+     * @return offset in bytecode or -1 when no line at or after linen generated bytecode
+     */
+    public int getNearestOffset(int linen) {
+        int index = Arrays.binarySearch(lines, linen);
+        if(index < 0) {
+            index = -index - 1;
+        }
+        if(index >= offsets.length) {
+            return -1;
+        }
+        return offsets[index];
+    }
+
+    /**
+     * get length of bytecode described by this map
+     * @return bytecode length
+     */
+    public int getCodeLength() {
+        return lineOfOffset.length;
+    }
+
+    /**
+     * get size of serialized source map
+     * @return size in bytes
+     */
+    public int getSerializedSize() {
+        return 8 + lines.length * 8;
+    }
+
+    /**
+     * write source map to buffer
+     * @param buffer buffer to write into
+     */
+    public void serialize(ByteBuffer buffer) {
+        buffer.putInt(lineOfOffset.length);
+        buffer.putInt(lines.length);
+        for(int i=0; i < lines.length; ++i) {
+            buffer.putInt(lines[i]);
+            buffer.putInt(offsets[i]);
+        }
+    }
+
+    /**
+     * read source map written by serialize
+     * @param buffer buffer to read from
+     * @return source map
+     */
+    public static SourceMap deserialize(ByteBuffer buffer) {
+        int codeLength = buffer.getInt();
+        int count = buffer.getInt();
+        int[] lines = new int[count];
+        int[] offsets = new int[count];
+        for(int i=0; i < count; ++i) {
+            lines[i] = buffer.getInt();
+            offsets[i] = buffer.getInt();
+        }
+        return new SourceMap(codeLength, lines, offsets);
+    }
+}
@@ -0,0 +1,91 @@
+/**
+ * FNV-1a 64 bit hashes of virtual machine state used to compare runs
+ */
+public class StateHash {
+    private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long PRIME = 0x100000001b3L;
+
+    private long hash = OFFSET_BASIS;
+
+    /**
+     * hash framebuffer
+     * @param state virtual machine
+     * @return hash of all pixels
+     */
+    public static long framebuffer(VirtualMachineState state) {
+        StateHash hash = new StateHash();
+        for(long row : state.getFramebuffer()) {
+            hash.add(row);
+        }
+        return hash.get();
+    }
+
+    /**
+     * hash registers, I, ip, timers and call stack
+     * @param state virtual machine
+     * @return hash of cpu state
+     */
+    public static long registers(VirtualMachineState state) {
+        StateHash hash = new StateHash();
+        for(int i=0; i < 16; ++i) {
+            hash.add(state.getReg(i));
+        }
+        hash.add(state.getRegI());
+        hash.add(state.getIp());
+        hash.add(state.getDelayTimerCounter());
+        hash.add(state.getSoundTimerCounter());
+        for(int address : state.getCallStack()) {
+            hash.add(address);
+        }
+        return hash.get();
+    }
+
+    /**
+     * hash whole memory
+     * @param state virtual machine
+     * @return hash of memory
+     */
+    public static long memory(VirtualMachineState state) {
+        StateHash hash = new StateHash();
+        for(int address=0; address < VirtualMachineState.MEMORY_SIZE; ++address) {
+            hash.addByte(state.memoryGetByte(address));
+        }
+        return hash.get();
+    }
+
+    /**
+     * add one byte to hash
+     * @param value byte value
+     */
+    public void addByte(int value) {
+        hash = (hash ^ (value & 0xff)) * PRIME;
+    }
+
+    /**
+     * add long to hash (little endian)
+     * @param value long value
+     */
+    public void add(long value) {
+        for(int i=0; i < 8; ++i) {
+            addByte((int)(value >>> (i * 8)));
+        }
+    }
+
+    /**
+     * add int to hash (little endian)
+     * @param value int value
+     */
+    public void add(int value) {
+        for(int i=0; i < 4; ++i) {
+            addByte(value >>> (i * 8));
+        }
+    }
+
+    /**
+     * get current hash value
+     * @return hash
+     */
+    public long get() {
+        return hash;
+    }
+}
@@ -0,0 +1,236 @@
+/**
+ * interpreter executing opcodes directly in one switch without creating instruction objects,
+ * it has to follow instructions.spec exactly (check with LockstepHarness after every change)
+ */
+public class SwitchEngine implements ExecutionEngine {
+    /**
+     * execute instruction at ip
+     * @param state virtual machine state
+     * @throws VirtualMachineState.VMException thrown on executing error
+     */
+    @Override
+    public void step(VirtualMachineState state) throws VirtualMachineState.VMException {
+        short opcode = state.memoryGetShort(state.getIp());
+        int x = opcode >> 8 & 0xf;
+        int y = opcode >> 4 & 0xf;
+        int nn = opcode & 0xff;
+        int nnn = opcode & 0xfff;
+        switch(opcode >> 12 & 0xf) {
+            case 0x0:
+                if(nnn == 0x0E0) {
+                    state.clearScreen();
+                    state.nextInstruction();
+                } else if(nnn == 0x0EE) {
+                    state.returnFromSubroutine();
+                } else {
+                    state.callSubroutine(nnn);
+                }
+                return;
+            case 0x1:
+                state.jump(nnn);
+                return;
+            case 0x2:
+                state.callSubroutine(nnn);
+                return;
+            case 0x3:
+                skipIf(state, state.getReg(x) == nn);
+                return;
+            case 0x4:
+                skipIf(state, state.getReg(x) != nn);
+                return;
+            case 0x5:
+                if((opcode & 0xf) != 0) {
+                    break;
+                }
+                skipIf(state, state.getReg(x) == state.getReg(y));
+                return;
+            case 0x6:
+                state.setReg(x, nn);
+                state.nextInstruction();
+                return;
+            case 0x7:
+                state.setReg(x, 0xff & (state.getReg(x) + nn));
+                state.nextInstruction();
+                return;
+            case 0x8:
+                if(!arithmetic(state, opcode & 0xf, x, y)) {
+                    break;
+                }
+                state.nextInstruction();
+                return;
+            case 0x9:
+                if((opcode & 0xf) != 0) {
+                    break;
+                }
+                skipIf(state, state.getReg(x) != state.getReg(y));
+                return;
+            case 0xA:
+                state.setRegI(nnn);
+                state.nextInstruction();
+                return;
+            case 0xB:
+                state.jump(state.getReg(0) + nnn);
+                return;
+            case 0xC:
+                state.setReg(x, state.nextRandom() & nn);
+                state.nextInstruction();
+                return;
+            case 0xD:
+                draw(state, state.getReg(x), state.getReg(y), opcode & 0xf);
+                state.nextInstruction();
+                return;
+            case 0xE:
+                if(nn == 0x9E) {
+                    skipIf(state, state.isKeyPressed(state.getReg(x)));
+                    return;
+                } else if(nn == 0xA1) {
+                    skipIf(state, !state.isKeyPressed(state.getReg(x)));
+                    return;
+                }
+                break;
+            case 0xF:
+                if(misc(state, nn, x)) {
+                    return;
+                }
+                break;
+        }
+        throw VirtualMachineState.VMException.cannotDecode(opcode, state);
+    }
+
+    /**
+     * get name of the engine
+     * @return engine name
+     */
+    @Override
+    public String getName() {
+        return "switch";
+    }
+
+    private static void skipIf(VirtualMachineState state, boolean condition) {
+        if(condition) {
+            state.skipInstruction();
+        } else {
+            state.nextInstruction();
+        }
+    }
+
+    private static boolean arithmetic(VirtualMachineState state, int operation, int x, int y) {
+        int vx = state.getReg(x);
+        int vy = state.getReg(y);
+        int result;
+        switch(operation) {
+            case 0x0:
+                state.setReg(x, vy);
+                return true;
+            case 0x1:
+                state.setReg(x, 0xff & (vx | vy));
+                return true;
+            case 0x2:
+                state.setReg(x, 0xff & (vx & vy));
+                return true;
+            case 0x3:
+                state.setReg(x, 0xff & (vx ^ vy));
+                return true;
+            case 0x4:
+                result = vx + vy;
+                state.setReg(15, result > 0xff ? 1 : 0);
+                state.setReg(x, result & 0xff);
+                return true;
+            case 0x5:
+                result = vx - vy;
+                state.setReg(15, result < 0 ? 1 : 0);
+                state.setReg(x, result & 0xff);
+                return true;
+            case 0x6:
+                if(y != 0) {
+                    return false;
+                }
+                state.setReg(15, vx & 1);
+                state.setReg(x, state.getReg(x) >>> 1);
+                return true;
+            case 0x7:
+                result = vy - vx;
+                state.setReg(15, result < 0 ? 1 : 0);
+                state.setReg(x, result & 0xff);
+                return true;
+            case 0xE:
+                if(y != 0) {
+                    return false;
+                }
+                state.setReg(15, vx >> 7);
+                state.setReg(x, (vx << 1) & 0xfe);
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static void draw(VirtualMachineState state, int x, int y, int n) {
+        int address = state.getRegI();
+        boolean flipped = false;
+        for(int i=0; i < n; ++i) {
+            int sprite = state.memoryGetByte(address + i) & 0xff;
+            for(int j=0; j < 8; ++j) {
+                int bit = (sprite >> (7 - j)) & 1;
+                // same collision check as DrawSprite in instructions.spec
+                if(bit != 0 && state.getPixel(x + j, y) == 0xffffff) {
+                    flipped = true;
+                }
+                int currentValue = state.getPixel(x + j, y + i) & 0x01;
+                state.setPixel(x + j, y + i, 0xffffffff * (currentValue ^ bit));
+            }
+        }
+        state.setReg(15, flipped ? 1 : 0);
+        state.updateScreen();
+    }
+
+    private static boolean misc(VirtualMachineState state, int operation, int x) {
+        int address = state.getRegI();
+        switch(operation) {
+            case 0x07:
+                state.setReg(x, state.getDelayTimerCounter());
+                break;
+            case 0x0A:
+                int key = state.getPressedKey();
+                if(key < 0) {
+                    return true;
+                }
+                state.setReg(x, key);
+                break;
+            case 0x15:
+                state.setDelayTimerCounter(state.getReg(x));
+                break;
+            case 0x18:
+                state.setSoundTimerCounter(state.getReg(x));
+                break;
+            case 0x1E:
+                int value = address + state.getReg(x);
+                state.setReg(15, value > 0xfff ? 1 : 0);
+                state.setRegI(value);
+                break;
+            case 0x29:
+                state.setRegI(state.getSpriteAddress(x));
+                break;
+            case 0x33:
+                int reg = state.getReg(x);
+                state.memorySetByte(address, (byte)((reg / 100) & 0xff));
+                state.memorySetByte(address + 1, (byte)(((reg / 10) % 10) & 0xff));
+                state.memorySetByte(address + 2, (byte)((reg % 10) & 0xff));
+                break;
+            case 0x55:
+                for(int i=0; i < x; ++i) {
+                    state.memorySetByte(address + i, (byte)(0xff & state.getReg(i)));
+                }
+                break;
+            case 0x65:
+                for(int i=0; i < x; ++i) {
+                    state.setReg(i, state.memoryGetByte(address + i) & 0xff);
+                }
+                break;
+            default:
+                return false;
+        }
+        state.nextInstruction();
+        return true;
+    }
+}
@@ -0,0 +1,368 @@
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.function.IntPredicate;
+
+/**
+ * instruction undo log for reverse debugging, used only by the debugger (engines and headless runners do not log):
+ * every instruction executed through step writes a compact record with the state it overwrites (ip, I, timers,
+ * changed registers, popped return address, random generator before Rand, memory bytes written by BCD and store,
+ * framebuffer rows changed by draw and clear) and keypad, so stepBack undoes one instruction instantly,
+ * every CHECKPOINT_INTERVAL instructions a copy-on-write snapshot starts new segment of the log, reverseContinue
+ * finds the last executed breakpoint in the log and reaches it either by undoing records or by restoring the
+ * checkpoint and replaying the records before the breakpoint (with their keypad and timers), whichever is shorter,
+ * the oldest segments are dropped when there are more than maxCheckpoints of them
+ */
+public class UndoLog {
+    public static final int CHECKPOINT_INTERVAL = 4096;
+    public static final int DEFAULT_MAX_CHECKPOINTS = 256;
+
+    // record layout: ip, I, delay timer, sound timer, keypad, flags << 16 | changed registers mask, old values of
+    // changed registers, optional parts selected by flags and length of the record as the last int
+    private static final int FLAG_RANDOM = 1;
+    private static final int FLAG_STACK = 2;
+    private static final int FLAG_MEMORY = 4;
+    private static final int FLAG_ROWS = 8;
+    private static final int FIXED = 6;
+
+    /**
+     * part of the log starting at checkpoint
+     */
+    private static class Segment {
+        final VirtualMachineState.Snapshot checkpoint;
+        int[] records = new int[1024];
+        int size = 0;
+        int count = 0;
+
+        Segment(VirtualMachineState.Snapshot checkpoint) {
+            this.checkpoint = checkpoint;
+        }
+
+        void ensure(int ints) {
+            if(size + ints > records.length) {
+                records = Arrays.copyOf(records, Math.max(records.length * 2, size + ints));
+            }
+        }
+
+        /** get start of the last record */
+        int lastStart() {
+            return size - records[size - 1];
+        }
+    }
+
+    private final int maxCheckpoints;
+    private final ArrayDeque<Segment> segments = new ArrayDeque<>();
+    private final int[] regs = new int[16];
+    private final long[] rows = new long[VirtualMachineState.SCREEN_HEIGHT];
+    private final byte[] bytes = new byte[17];
+
+    /**
+     * create empty log
+     * @param maxCheckpoints maximum number of segments, history covers up to maxCheckpoints * CHECKPOINT_INTERVAL instructions
+     */
+    public UndoLog(int maxCheckpoints) {
+        this.maxCheckpoints = maxCheckpoints;
+    }
+
+    /**
+     * drop whole history, has to be called when machine is changed outside of the log (e.g. loaded or rewound)
+     */
+    public void clear() {
+        segments.clear();
+    }
+
+    /**
+     * get number of instructions which can be undone
+     * @return instructions
+     */
+    public long getInstructions() {
+        long count = 0;
+        for(Segment segment : segments) {
+            count += segment.count;
+        }
+        return count;
+    }
+
+    /**
+     * execute one instruction and log it, the record is kept also when instruction faults
+     * @param state virtual machine
+     * @throws VirtualMachineState.VMException thrown by instruction
+     */
+    public void step(VirtualMachineState state) throws VirtualMachineState.VMException {
+        Segment segment = segments.peekLast();
+        if(segment == null || segment.count >= CHECKPOINT_INTERVAL) {
+            if(segments.size() >= maxCheckpoints) {
+                segments.removeFirst();
+            }
+            segment = new Segment(state.snapshot());
+            segments.addLast(segment);
+        }
+        int ip = state.getIp();
+        int opcode = ip >= 0 && ip + 1 < VirtualMachineState.MEMORY_SIZE ? state.memoryGetShort(ip) & 0xffff : 0;
+        int flags = classify(opcode);
+        for(int n=0; n < 16; ++n) {
+            regs[n] = state.getReg(n);
+        }
+        int regI = state.getRegI();
+        long random = state.getRandomState();
+        int depth = state.getCallStackDepth();
+        int top = (flags & FLAG_STACK) != 0 && depth > 0 ? state.getCallStack()[depth - 1] : 0;
+        int address = 0;
+        int length = 0;
+        if((flags & FLAG_MEMORY) != 0) {
+            // BCD writes 3 bytes, store writes registers up to X (one more is kept in case of inclusive store)
+            address = Math.max(0, Math.min(regI, VirtualMachineState.MEMORY_SIZE));
+            length = Math.min(opcode >> 12 == 0xF && (opcode & 0xff) == 0x33 ? 3 : (opcode >> 8 & 0xf) + 1,
+                    VirtualMachineState.MEMORY_SIZE - address);
+            for(int i=0; i < length; ++i) {
+                bytes[i] = state.memoryGetByte(address + i);
+            }
+        }
+        if((flags & FLAG_ROWS) != 0) {
+            System.arraycopy(state.getFramebuffer(), 0, rows, 0, rows.length);
+        }
+        int delay = state.getDelayTimerCounter();
+        int sound = state.getSoundTimerCounter();
+        try {
+            state.executeInstruction();
+        } finally {
+            write(segment, state, ip, regI, delay, sound, flags, random, depth, top, address, length);
+        }
+    }
+
+    /**
+     * undo the last logged instruction
+     * @param state virtual machine
+     * @return false when there is nothing to undo
+     */
+    public boolean stepBack(VirtualMachineState state) {
+        while(!segments.isEmpty() && segments.peekLast().count == 0) {
+            segments.removeLast();
+        }
+        if(segments.isEmpty()) {
+            return false;
+        }
+        undo(segments.peekLast(), state);
+        state.updateScreen();
+        return true;
+    }
+
+    /**
+     * go back to the last executed instruction at a breakpoint (machine stops before executing it)
+     * or to the beginning of the log when no breakpoint was executed
+     * @param state virtual machine
+     * @param isBreakpoint tells if address has a breakpoint
+     * @return true when breakpoint was reached
+     */
+    public boolean reverseContinue(VirtualMachineState state, IntPredicate isBreakpoint) {
+        long undoCount = 0;
+        Iterator<Segment> iterator = segments.descendingIterator();
+        while(iterator.hasNext()) {
+            Segment segment = iterator.next();
+            int end = segment.size;
+            for(int index = segment.count - 1; index >= 0; --index) {
+                int start = end - segment.records[end - 1];
+                ++undoCount;
+                if(isBreakpoint.test(segment.records[start])) {
+                    if(undoCount <= index) {
+                        for(long i=0; i < undoCount; ++i) {
+                            stepBack(state);
+                        }
+                    } else {
+                        replay(segment, index, state);
+                    }
+                    state.updateScreen();
+                    return true;
+                }
+                end = start;
+            }
+        }
+        if(!segments.isEmpty()) {
+            replay(segments.peekFirst(), 0, state);
+            state.updateScreen();
+        }
+        return false;
+    }
+
+    /**
+     * restore checkpoint of segment and execute its first count records again, later history is dropped
+     */
+    private void replay(Segment segment, int count, VirtualMachineState state) {
+        while(segments.peekLast() != segment) {
+            segments.removeLast();
+        }
+        int keypad = state.getKeypad();
+        state.restore(segment.checkpoint);
+        int position = 0;
+        for(int index=0; index < count; ++index) {
+            int[] record = segment.records;
+            state.setDelayTimerCounter(record[position + 2]);
+            state.setSoundTimerCounter(record[position + 3]);
+            state.setKeypad(record[position + 4]);
+            try {
+                state.executeInstruction();
+            } catch (VirtualMachineState.VMException ignored) {
+                // it faulted the same way when it was logged
+            }
+            position = findEnd(segment, position);
+        }
+        segment.size = position;
+        segment.count = count;
+        state.setKeypad(keypad);
+    }
+
+    /**
+     * get end of record starting at position
+     */
+    private static int findEnd(Segment segment, int position) {
+        int[] record = segment.records;
+        int flags = record[position + 5] >>> 16;
+        int end = position + FIXED + Integer.bitCount(record[position + 5] & 0xffff);
+        if((flags & FLAG_RANDOM) != 0) {
+            end += 2;
+        }
+        if((flags & FLAG_STACK) != 0) {
+            end += 2;
+        }
+        if((flags & FLAG_MEMORY) != 0) {
+            end += 2 + record[end + 1];
+        }
+        if((flags & FLAG_ROWS) != 0) {
+            end += 1 + 2 * Integer.bitCount(record[end]);
+        }
+        return end + 1;
+    }
+
+    private void write(Segment segment, VirtualMachineState state, int ip, int regI, int delay, int sound, int flags,
+                       long random, int depth, int top, int address, int length) {
+        int changed = 0;
+        for(int n=0; n < 16; ++n) {
+            if(state.getReg(n) != regs[n]) {
+                changed |= 1 << n;
+            }
+        }
+        int rowMask = 0;
+        if((flags & FLAG_ROWS) != 0) {
+            long[] framebuffer = state.getFramebuffer();
+            for(int y=0; y < rows.length; ++y) {
+                if(framebuffer[y] != rows[y]) {
+                    rowMask |= 1 << y;
+                }
+            }
+        }
+        segment.ensure(FIXED + 16 + 2 + 2 + 2 + length + 1 + 2 * rows.length + 1);
+        int[] record = segment.records;
+        int start = segment.size;
+        int position = start;
+        record[position++] = ip;
+        record[position++] = regI;
+        record[position++] = delay;
+        record[position++] = sound;
+        record[position++] = state.getKeypad();
+        record[position++] = flags << 16 | changed;
+        for(int n=0; n < 16; ++n) {
+            if((changed >> n & 1) != 0) {
+                record[position++] = regs[n];
+            }
+        }
+        if((flags & FLAG_RANDOM) != 0) {
+            record[position++] = (int)(random >>> 32);
+            record[position++] = (int)random;
+        }
+        if((flags & FLAG_STACK) != 0) {
+            record[position++] = depth;
+            record[position++] = top;
+        }
+        if((flags & FLAG_MEMORY) != 0) {
+            record[position++] = address;
+            record[position++] = length;
+            for(int i=0; i < length; ++i) {
+                record[position++] = bytes[i];
+            }
+        }
+        if((flags & FLAG_ROWS) != 0) {
+            record[position++] = rowMask;
+            for(int y=0; y < rows.length; ++y) {
+                if((rowMask >> y & 1) != 0) {
+                    record[position++] = (int)(rows[y] >>> 32);
+                    record[position++] = (int)rows[y];
+                }
+            }
+        }
+        record[position] = position + 1 - start;
+        segment.size = position + 1;
+        ++segment.count;
+    }
+
+    private static void undo(Segment segment, VirtualMachineState state) {
+        int start = segment.lastStart();
+        int[] record = segment.records;
+        int position = start;
+        state.setIp(record[position++]);
+        state.setRegI(record[position++]);
+        state.setDelayTimerCounter(record[position++]);
+        state.setSoundTimerCounter(record[position++]);
+        ++position;
+        int flags = record[position] >>> 16;
+        int changed = record[position++] & 0xffff;
+        for(int n=0; n < 16; ++n) {
+            if((changed >> n & 1) != 0) {
+                state.setReg(n, record[position++]);
+            }
+        }
+        if((flags & FLAG_RANDOM) != 0) {
+            state.setRandomState((long)record[position] << 32 | record[position + 1] & 0xffffffffL);
+            position += 2;
+        }
+        if((flags & FLAG_STACK) != 0) {
+            int depth = record[position++];
+            int top = record[position++];
+            int[] stack = state.getCallStack();
+            if(stack.length != depth) {
+                stack = Arrays.copyOf(stack, depth);
+                if(depth > 0 && depth > state.getCallStackDepth()) {
+                    stack[depth - 1] = top;
+                }
+                state.setCallStack(stack);
+            }
+        }
+        if((flags & FLAG_MEMORY) != 0) {
+            int address = record[position++];
+            int length = record[position++];
+            for(int i=0; i < length; ++i) {
+                state.memorySetByte(address + i, (byte)record[position++]);
+            }
+        }
+        if((flags & FLAG_ROWS) != 0) {
+            int rowMask = record[position++];
+            long[] framebuffer = state.getFramebuffer();
+            for(int y=0; y < framebuffer.length; ++y) {
+                if((rowMask >> y & 1) != 0) {
+                    framebuffer[y] = (long)record[position] << 32 | record[position + 1] & 0xffffffffL;
+                    position += 2;
+                }
+            }
+        }
+        segment.size = start;
+        --segment.count;
+    }
+
+    /**
+     * get parts of state which instruction overwrites besides registers, ip, I and timers
+     */
+    private static int classify(int opcode) {
+        switch(opcode >> 12) {
+            case 0x0:
+                if(opcode == 0x00E0) {
+                    return FLAG_ROWS;
+                }
+                return FLAG_STACK;
+            case 0x2: return FLAG_STACK;
+            case 0xC: return FLAG_RANDOM;
+            case 0xD: return FLAG_ROWS;
+            case 0xF:
+                return (opcode & 0xff) == 0x33 || (opcode & 0xff) == 0x55 ? FLAG_MEMORY : 0;
+            default: return 0;
+        }
+    }
+}
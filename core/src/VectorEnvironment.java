@@ -0,0 +1,315 @@
+/**
+ * vector of headless environments for training agents (Gym-style reset/step API), every environment is one virtual
+ * machine running the same program:
+ * action is the keypad bitmask held for the whole step, observation is the packed framebuffer (OBSERVATION_SIZE longs
+ * per environment, pixel x of row y in bit x of long y), reward is the change of score read by ScoreReader and
+ * environment is done when DoneCondition holds, its machine faults or the episode reaches the frame limit,
+ * observations, rewards and done flags are written to buffers provided by the caller and reused between steps
+ * so stepping allocates nothing
+ */
+public class VectorEnvironment {
+    /**
+     * reads score of the game from machine, reward of a step is the score difference
+     */
+    public interface ScoreReader {
+        /**
+         * get current score
+         * @param state virtual machine
+         * @return score
+         */
+        int score(VirtualMachineState state);
+
+        /**
+         * score which never changes, all rewards are 0
+         * @return score reader
+         */
+        static ScoreReader none() {
+            return state -> 0;
+        }
+
+        /**
+         * score stored in one byte of memory
+         * @param address address of byte
+         * @return score reader
+         */
+        static ScoreReader memoryByte(int address) {
+            return state -> state.memoryGetByte(address) & 0xff;
+        }
+
+        /**
+         * score stored as decimal digits, one per byte with the most significant first (as written by BCD)
+         * @param address address of the first digit
+         * @param digits number of digits
+         * @return score reader
+         */
+        static ScoreReader decimal(int address, int digits) {
+            return state -> {
+                int score = 0;
+                for(int i=0; i < digits; ++i) {
+                    score = score * 10 + (state.memoryGetByte(address + i) & 0xff);
+                }
+                return score;
+            };
+        }
+
+        /**
+         * score kept in a register
+         * @param n register number (0 - 15)
+         * @return score reader
+         */
+        static ScoreReader register(int n) {
+            return state -> state.getReg(n);
+        }
+    }
+
+    /**
+     * decides when episode ends
+     */
+    public interface DoneCondition {
+        /**
+         * check end of episode after a step
+         * @param state virtual machine
+         * @return true when episode ended
+         */
+        boolean isDone(VirtualMachineState state);
+
+        /**
+         * episodes end only on fault or frame limit
+         * @return done condition
+         */
+        static DoneCondition never() {
+            return state -> false;
+        }
+
+        /**
+         * episode ends when byte of memory has given value (e.g. lives counter reaches 0)
+         * @param address address of byte
+         * @param value value ending the episode
+         * @return done condition
+         */
+        static DoneCondition memoryByteEquals(int address, int value) {
+            return state -> (state.memoryGetByte(address) & 0xff) == value;
+        }
+
+        /**
+         * episode ends when register has given value
+         * @param n register number (0 - 15)
+         * @param value value ending the episode
+         * @return done condition
+         */
+        static DoneCondition registerEquals(int n, int value) {
+            return state -> state.getReg(n) == value;
+        }
+
+        /**
+         * episode ends when machine waits for key with stopped timers (typical game over screen)
+         * @return done condition
+         */
+        static DoneCondition waitingForKey() {
+            return state -> state.getDelayTimerCounter() == 0 && state.isWaitingForKey();
+        }
+    }
+
+    /** longs of observation buffer used by one environment */
+    public static final int OBSERVATION_SIZE = VirtualMachineState.SCREEN_HEIGHT;
+    public static final int DEFAULT_FRAMES_PER_STEP = 4;
+    public static final int DEFAULT_INSTRUCTIONS_PER_FRAME = 10;
+
+    private final byte[] program;
+    private final VirtualMachineState[] states;
+    private final int[] scores;
+    private final int[] episodeFrames;
+    private final boolean[] finished;
+    private final String[] faults;
+
+    private ScoreReader scoreReader = ScoreReader.none();
+    private DoneCondition doneCondition = DoneCondition.never();
+    private int framesPerStep = DEFAULT_FRAMES_PER_STEP;
+    private int instructionsPerFrame = DEFAULT_INSTRUCTIONS_PER_FRAME;
+    private int maxEpisodeFrames = 0;
+
+    /**
+     * create environments, they have to be reset before first step
+     * @param program bytecode loaded at address 0x200
+     * @param count number of environments
+     * @param engine execution engine shared by all machines (it must be stateless or thread confined)
+     */
+    public VectorEnvironment(byte[] program, int count, ExecutionEngine engine) {
+        if(program.length > VirtualMachineState.MAX_PROGRAM_SIZE) {
+            throw new IllegalArgumentException("Program too long");
+        }
+        this.program = program.clone();
+        states = new VirtualMachineState[count];
+        scores = new int[count];
+        episodeFrames = new int[count];
+        finished = new boolean[count];
+        faults = new String[count];
+        for(int env=0; env < count; ++env) {
+            states[env] = new VirtualMachineState(this.program, engine);
+        }
+    }
+
+    /**
+     * set reader of game score used for rewards
+     * @param scoreReader score reader
+     */
+    public void setScoreReader(ScoreReader scoreReader) {
+        this.scoreReader = scoreReader;
+    }
+
+    /**
+     * set condition ending episodes
+     * @param doneCondition done condition
+     */
+    public void setDoneCondition(DoneCondition doneCondition) {
+        this.doneCondition = doneCondition;
+    }
+
+    /**
+     * set number of frames emulated by one step, action is held during all of them
+     * @param framesPerStep frames per step
+     */
+    public void setFramesPerStep(int framesPerStep) {
+        this.framesPerStep = framesPerStep;
+    }
+
+    /**
+     * set number of instructions executed per frame
+     * @param instructionsPerFrame instructions per frame
+     */
+    public void setInstructionsPerFrame(int instructionsPerFrame) {
+        this.instructionsPerFrame = instructionsPerFrame;
+    }
+
+    /**
+     * set frame limit of episode
+     * @param maxEpisodeFrames frames after which episode is done, 0 for no limit
+     */
+    public void setMaxEpisodeFrames(int maxEpisodeFrames) {
+        this.maxEpisodeFrames = maxEpisodeFrames;
+    }
+
+    /**
+     * get number of environments
+     * @return environments
+     */
+    public int getCount() {
+        return states.length;
+    }
+
+    /**
+     * get virtual machine of environment, e.g. for custom observations
+     * @param env environment number
+     * @return virtual machine
+     */
+    public VirtualMachineState getState(int env) {
+        return states[env];
+    }
+
+    /**
+     * get reason why machine of environment faulted
+     * @param env environment number
+     * @return error message or null when machine did not fault in this episode
+     */
+    public String getFault(int env) {
+        return faults[env];
+    }
+
+    /**
+     * get length of current episode
+     * @param env environment number
+     * @return frames emulated since reset
+     */
+    public int getEpisodeFrames(int env) {
+        return episodeFrames[env];
+    }
+
+    /**
+     * reset all environments, environment n is seeded with seed + n
+     * @param seed random seed of the first environment
+     * @param observations buffer receiving OBSERVATION_SIZE longs per environment
+     */
+    public void reset(long seed, long[] observations) {
+        checkBuffer(observations.length, OBSERVATION_SIZE, "observations");
+        for(int env=0; env < states.length; ++env) {
+            reset(env, seed + env);
+            observe(env, observations);
+        }
+    }
+
+    /**
+     * reset one environment (e.g. after it is done), observation can be read by observe
+     * @param env environment number
+     * @param seed random seed of machine
+     */
+    public void reset(int env, long seed) {
+        VirtualMachineState state = states[env];
+        state.reset(program);
+        state.setRandomSeed(seed);
+        scores[env] = scoreReader.score(state);
+        episodeFrames[env] = 0;
+        finished[env] = false;
+        faults[env] = null;
+    }
+
+    /**
+     * step all environments which are not done, environments done in previous steps keep their observation,
+     * get reward 0 and stay done until they are reset
+     * @param actions keypad bitmask of every environment
+     * @param observations buffer receiving OBSERVATION_SIZE longs per environment
+     * @param rewards buffer receiving score change of every environment
+     * @param done buffer receiving true for environments whose episode ended
+     */
+    public void step(int[] actions, long[] observations, float[] rewards, boolean[] done) {
+        checkBuffer(actions.length, 1, "actions");
+        checkBuffer(observations.length, OBSERVATION_SIZE, "observations");
+        checkBuffer(rewards.length, 1, "rewards");
+        checkBuffer(done.length, 1, "done");
+        for(int env=0; env < states.length; ++env) {
+            if(finished[env]) {
+                rewards[env] = 0;
+                done[env] = true;
+                continue;
+            }
+            VirtualMachineState state = states[env];
+            state.setKeypad(actions[env]);
+            try {
+                for(int frame=0; frame < framesPerStep && !finished[env]; ++frame) {
+                    state.runFrame(instructionsPerFrame);
+                    ++episodeFrames[env];
+                    finished[env] = maxEpisodeFrames > 0 && episodeFrames[env] >= maxEpisodeFrames;
+                }
+                finished[env] |= doneCondition.isDone(state);
+            } catch (VirtualMachineState.VMException error) {
+                fault(env, error.reason);
+            } catch (RuntimeException error) {
+                fault(env, error.toString());
+            }
+            int score = scoreReader.score(state);
+            rewards[env] = score - scores[env];
+            scores[env] = score;
+            done[env] = finished[env];
+            observe(env, observations);
+        }
+    }
+
+    /**
+     * write current observation of environment
+     * @param env environment number
+     * @param observations buffer receiving OBSERVATION_SIZE longs per environment
+     */
+    public void observe(int env, long[] observations) {
+        System.arraycopy(states[env].getFramebuffer(), 0, observations, env * OBSERVATION_SIZE, OBSERVATION_SIZE);
+    }
+
+    private void fault(int env, String reason) {
+        faults[env] = reason;
+        finished[env] = true;
+    }
+
+    private void checkBuffer(int length, int perEnvironment, String name) {
+        if(length < states.length * perEnvironment) {
+            throw new IllegalArgumentException(String.format("Buffer %s too short, %d needed", name, states.length * perEnvironment));
+        }
+    }
+}
@@ -0,0 +1,362 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * pool running many virtual machines on a small number of carrier threads (M:N scheduling),
+ * every scheduling slice executes one frame of one machine (instructions and timer tick), machines are picked
+ * round-robin from a shared run queue, one ticker thread paces all machines instead of a timer per machine,
+ * keypad is latched at the start of every frame, so the input of a session can be recorded to InputMovie
+ */
+public class VirtualMachinePool {
+    /**
+     * one virtual machine hosted by the pool
+     */
+    public class Session implements EmulatorSession {
+        private final int id;
+        private final VirtualMachineState state;
+        private final InputMovie movie;
+        // held by carrier while it runs a slice, so pause returns only after the frame is finished
+        private final ReentrantLock sliceLock = new ReentrantLock();
+        // true while the session is in run queue or executed by a carrier, only that carrier changes baseFrame
+        private final AtomicBoolean queued = new AtomicBoolean(false);
+        private volatile Status status = Status.Running;
+        private volatile String fault = null;
+        private volatile long frames = 0;
+        private volatile long baseFrame;
+        private volatile int keypad;
+
+        private Session(int id, VirtualMachineState state, InputMovie movie) {
+            this.id = id;
+            this.state = state;
+            this.movie = movie;
+            keypad = state.getKeypad();
+            baseFrame = clock.get();
+        }
+
+        /**
+         * get session id
+         * @return id unique in pool
+         */
+        public int getId() {
+            return id;
+        }
+
+        /**
+         * get virtual machine, it may be read or modified only while session is paused
+         * @return virtual machine
+         */
+        @Override
+        public VirtualMachineState getState() {
+            return state;
+        }
+
+        /**
+         * get status
+         * @return current status
+         */
+        @Override
+        public Status getStatus() {
+            return status;
+        }
+
+        /**
+         * get reason of fault
+         * @return error message or null when session did not fault
+         */
+        @Override
+        public String getFault() {
+            return fault;
+        }
+
+        /**
+         * get number of emulated frames
+         * @return frames
+         */
+        @Override
+        public long getFrames() {
+            return frames;
+        }
+
+        /**
+         * set pressed keys, may be called from any thread, the machine sees them from the next frame
+         * @param keypad bitmask of pressed keys
+         */
+        @Override
+        public void setKeypad(int keypad) {
+            this.keypad = keypad & 0xffff;
+        }
+
+        /**
+         * stop scheduling the session, waits until the frame being executed is finished, so the machine
+         * can be used when it returns
+         */
+        @Override
+        public void pause() {
+            sliceLock.lock();
+            try {
+                if(status == Status.Running) {
+                    status = Status.Paused;
+                }
+            } finally {
+                sliceLock.unlock();
+            }
+        }
+
+        /**
+         * continue paused session, frames missed while paused are not emulated
+         */
+        @Override
+        public void resume() {
+            sliceLock.lock();
+            try {
+                if(status != Status.Paused) {
+                    return;
+                }
+                baseFrame = clock.get() - frames;
+                status = Status.Running;
+            } finally {
+                sliceLock.unlock();
+            }
+            schedule(this);
+        }
+
+        /**
+         * remove session from the pool, waits until the frame being executed is finished
+         */
+        @Override
+        public void stop() {
+            sliceLock.lock();
+            try {
+                status = Status.Stopped;
+            } finally {
+                sliceLock.unlock();
+            }
+            sessions.remove(this);
+        }
+
+        private boolean isDue() {
+            if(status != Status.Running) {
+                return false;
+            }
+            return framesPerSecond == 0 || frames < clock.get() - baseFrame;
+        }
+
+        /**
+         * drop frames the session fell behind by more than MAX_LAG_FRAMES, called only by carrier owning the session
+         */
+        private void dropLag() {
+            if(framesPerSecond == 0) {
+                return;
+            }
+            long now = clock.get();
+            if(now - baseFrame - frames > MAX_LAG_FRAMES) {
+                baseFrame = now - frames - MAX_LAG_FRAMES;
+            }
+        }
+
+        /**
+         * run one frame unless session was paused or stopped meanwhile
+         */
+        private void runSliceIfRunning() {
+            sliceLock.lock();
+            try {
+                if(status == Status.Running) {
+                    dropLag();
+                    runSlice();
+                }
+            } finally {
+                sliceLock.unlock();
+            }
+        }
+
+        private void runSlice() {
+            try {
+                long executed = state.getExecutedInstructions();
+                int frameKeypad = keypad;
+                state.setKeypad(frameKeypad);
+                if(movie != null) {
+                    movie.record(frameKeypad);
+                }
+                state.runFrame(instructionsPerFrame);
+                ++frames;
+                instructions.add(state.getExecutedInstructions() - executed);
+                totalFrames.increment();
+            } catch (VirtualMachineState.VMException error) {
+                fail(error.reason);
+            } catch (RuntimeException error) {
+                fail(error.toString());
+            }
+        }
+
+        private void fail(String reason) {
+            fault = reason;
+            status = Status.Faulted;
+        }
+    }
+
+    /**
+     * frames a session may fall behind the clock before missed frames are dropped
+     */
+    public static final int MAX_LAG_FRAMES = 4;
+
+    private final int instructionsPerFrame;
+    private final int framesPerSecond;
+    private final CopyOnWriteArrayList<Session> sessions = new CopyOnWriteArrayList<>();
+    private final LinkedBlockingQueue<Session> runQueue = new LinkedBlockingQueue<>();
+    private final AtomicInteger nextId = new AtomicInteger();
+    private final AtomicLong clock = new AtomicLong();
+    private final LongAdder instructions = new LongAdder();
+    private final LongAdder totalFrames = new LongAdder();
+    private final ArrayList<Thread> threads = new ArrayList<>();
+    private volatile boolean running = true;
+    private final long startNanos = System.nanoTime();
+
+    /**
+     * create pool and start its threads
+     * @param carriers number of carrier threads executing machines
+     * @param instructionsPerFrame instructions executed by one machine per frame
+     * @param framesPerSecond frames emulated per second by every machine, 0 runs machines as fast as possible
+     */
+    public VirtualMachinePool(int carriers, int instructionsPerFrame, int framesPerSecond) {
+        this.instructionsPerFrame = instructionsPerFrame;
+        this.framesPerSecond = framesPerSecond;
+        for(int i=0; i < carriers; ++i) {
+            Thread carrier = new Thread(this::carrierLoop, "vm-carrier-" + i);
+            carrier.setDaemon(true);
+            threads.add(carrier);
+        }
+        if(framesPerSecond > 0) {
+            Thread ticker = new Thread(this::tickerLoop, "vm-ticker");
+            ticker.setDaemon(true);
+            threads.add(ticker);
+        }
+        threads.forEach(Thread::start);
+    }
+
+    /**
+     * add machine to the pool, it starts running immediately
+     * @param state virtual machine (its engine must not be shared with machines outside of the pool
+     *              unless the engine is stateless)
+     * @return session controlling the machine
+     */
+    public Session add(VirtualMachineState state) {
+        return add(state, null);
+    }
+
+    /**
+     * add machine to the pool recording keypad of every emulated frame, it starts running immediately
+     * @param state virtual machine created by movie.createMachine (its engine must not be shared with machines
+     *              outside of the pool unless the engine is stateless)
+     * @param movie empty movie the input is recorded to, it may be finished and saved while session is paused,
+     *              null records nothing
+     * @return session controlling the machine
+     * @throws IllegalArgumentException when movie has other instructions per frame than the pool
+     */
+    public Session add(VirtualMachineState state, InputMovie movie) {
+        if(movie != null && movie.getInstructionsPerFrame() != instructionsPerFrame) {
+            throw new IllegalArgumentException("Movie has " + movie.getInstructionsPerFrame() + " instructions per frame");
+        }
+        Session session = new Session(nextId.getAndIncrement(), state, movie);
+        sessions.add(session);
+        schedule(session);
+        return session;
+    }
+
+    /**
+     * get sessions in the pool
+     * @return snapshot of sessions
+     */
+    public List<Session> getSessions() {
+        return new ArrayList<>(sessions);
+    }
+
+    /**
+     * get number of instructions executed by all machines
+     * @return instructions
+     */
+    public long getInstructions() {
+        return instructions.sum();
+    }
+
+    /**
+     * get number of frames emulated by all machines
+     * @return frames
+     */
+    public long getFrames() {
+        return totalFrames.sum();
+    }
+
+    /**
+     * get average throughput of the pool since it was created
+     * @return instructions per second of all machines together
+     */
+    public double getInstructionsPerSecond() {
+        long elapsed = System.nanoTime() - startNanos;
+        return elapsed == 0 ? 0 : getInstructions() * 1e9 / elapsed;
+    }
+
+    /**
+     * stop all threads, sessions keep their state
+     * @throws InterruptedException when interrupted while waiting for threads
+     */
+    public void shutdown() throws InterruptedException {
+        running = false;
+        for(Thread thread : threads) {
+            thread.interrupt();
+        }
+        for(Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    private void schedule(Session session) {
+        if(session.isDue() && session.queued.compareAndSet(false, true)) {
+            runQueue.add(session);
+        }
+    }
+
+    private void carrierLoop() {
+        while(running) {
+            Session session;
+            try {
+                session = runQueue.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            if(session == null) {
+                continue;
+            }
+            session.runSliceIfRunning();
+            session.queued.set(false);
+            schedule(session);
+        }
+    }
+
+    private void tickerLoop() {
+        long period = 1_000_000_000L / framesPerSecond;
+        long next = System.nanoTime() + period;
+        while(running) {
+            long wait = next - System.nanoTime();
+            if(wait > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+            next += period;
+            clock.incrementAndGet();
+            for(Session session : sessions) {
+                schedule(session);
+            }
+        }
+    }
+}
@@ -0,0 +1,903 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.util.*;
+
+/**
+ * virtual machine state (registers, memory, stack, timers, framebuffer and keypad),
+ * it does not depend on AWT or Swing so it can run headless, ui is attached through listeners
+ */
+public class VirtualMachineState {
+    /**
+     * listener notified when content of the screen changes
+     */
+    public interface DisplayListener {
+        /**
+         * called after framebuffer was changed
+         * @param state virtual machine whose framebuffer changed
+         */
+        void screenUpdated(VirtualMachineState state);
+    }
+
+    /**
+     * listener notified when sound should be played
+     */
+    public interface SoundListener {
+        /**
+         * called when sound timer counts down to zero
+         */
+        void beep();
+    }
+
+    /**
+     * listener notified when state of the keypad changes
+     */
+    public interface InputListener {
+        /**
+         * called after key was pressed or released
+         * @param keypad bitmask of pressed keys (bit n is set when key n is pressed)
+         */
+        void keypadChanged(int keypad);
+    }
+
+    public static final int SCREEN_WIDTH = 64;
+    public static final int SCREEN_HEIGHT = 32;
+    public static final int MEMORY_SIZE = 0x1000;
+    public static final int MAX_PROGRAM_SIZE = MEMORY_SIZE - 0x200;
+    public static final int STACK_LIMIT = 16;
+    // memory is split to 64 pages for snapshots, dirty pages are tracked in one long
+    public static final int PAGE_SIZE = 64;
+    private static final int PAGE_BITS = 6;
+    private static final int PAGES = MEMORY_SIZE / PAGE_SIZE;
+    private static final VarHandle KEYPAD;
+    static {
+        try {
+            KEYPAD = MethodHandles.lookup().findVarHandle(VirtualMachineState.class, "keypad", int.class);
+        } catch (ReflectiveOperationException error) {
+            throw new ExceptionInInitializerError(error);
+        }
+    }
+    private static final long RANDOM_GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    private static final long RANDOM_OUTPUT_MULTIPLIER = 0x2545F4914F6CDD1DL;
+
+    /**
+     * exception throw on instruction execution error
+     */
+    public static class VMException extends Exception {
+        public String reason;
+        VirtualMachineState stateAtFault;
+
+        /**
+         * construct from reason and state at fault
+         * @param reason error string
+         * @param stateAtFault vm state at foult
+         */
+        public VMException(String reason, VirtualMachineState stateAtFault) {
+            this.reason = reason;
+            this.stateAtFault = stateAtFault;
+        }
+
+        /**
+         * create exception for opcode which is not valid instruction
+         * @param opcode opcode at ip
+         * @param stateAtFault vm state at fault
+         * @return exception to be thrown
+         */
+        public static VMException cannotDecode(short opcode, VirtualMachineState stateAtFault) {
+            return new VMException(String.format("Cannot decode instruction %04X at %03X", opcode & 0xffff, stateAtFault.getIp()), stateAtFault);
+        }
+    }
+
+    /**
+     * immutable in-memory snapshot of whole machine, memory pages not written since previous snapshot are shared
+     * with it (copy on write at snapshot granularity), so snapshot costs only pages written since then,
+     * framebuffer is shared when it did not change
+     */
+    public static class Snapshot {
+        private final int[] regs;
+        private final int regI;
+        private final int ip;
+        private final int delayTimerCounter;
+        private final int soundTimerCounter;
+        private final int[] callStack;
+        private final int keypad;
+        private final long random;
+        private final byte[][] pages;
+        private final long[] framebuffer;
+        private final int copiedPages;
+
+        private Snapshot(VirtualMachineState state, byte[][] pages, long[] framebuffer, int copiedPages) {
+            regs = state.regs.clone();
+            regI = state.regI;
+            ip = state.ip;
+            delayTimerCounter = state.delayTimerCounter;
+            soundTimerCounter = state.soundTimerCounter;
+            callStack = Arrays.copyOf(state.callStack, state.callStackDepth);
+            keypad = state.keypad;
+            random = state.random;
+            this.pages = pages;
+            this.framebuffer = framebuffer;
+            this.copiedPages = copiedPages;
+        }
+
+        /**
+         * get number of memory pages copied by this snapshot, the others are shared with previous snapshot
+         * @return copied pages
+         */
+        public int getCopiedPages() {
+            return copiedPages;
+        }
+
+        /**
+         * get ip at the time of snapshot
+         * @return ip value
+         */
+        public int getIp() {
+            return ip;
+        }
+    }
+
+    private int[] regs = null;
+    // flat array so execution reads without indirection, writes mark their page dirty
+    private byte[] memory = null;
+    private long dirtyPages = -1;
+    private Snapshot lastSnapshot = null;
+    // memory writes and screen updates, an idle loop does none of them
+    private long writes = 0;
+    private boolean idleLoopSkipping = true;
+    private final IdleLoop idleLoop = new IdleLoop();
+    private long skippedInstructions = 0;
+    private long executedInstructions = 0;
+
+    private int delayTimerCounter = 0;
+    private int soundTimerCounter = 0;
+
+    // return addresses, grows when deeper than STACK_LIMIT so calls do not box addresses
+    private int[] callStack = null;
+    private int callStackDepth = 0;
+    private int regI;
+    private int ip;
+
+    private long[] framebuffer = null;
+    // written by input threads and read by the machine thread, read-modify-write only through KEYPAD atomic operations
+    private volatile int keypad = 0;
+    // xorshift64* generator state (never 0), every machine owns its generator so runs replay exactly from seed
+    private long random = scrambleSeed(0);
+
+    private ExecutionEngine engine;
+    private Optional<DisplayListener> displayListener = Optional.empty();
+    private Optional<SoundListener> soundListener = Optional.empty();
+    private Optional<InputListener> inputListener = Optional.empty();
+    private boolean listenersMuted = false;
+
+    /**
+     * constructor from program and disassembler to decode instruction,
+     * timers are not running on their own, timerInterrupt has to be called 60 times per second
+     * @param program bytecode loaded at address 0x200
+     * @param disassembler disassembler object from model
+     */
+    public VirtualMachineState(byte[] program, Disassembler disassembler) {
+        this(program, new DecodingEngine(disassembler));
+    }
+
+    /**
+     * constructor from program and engine executing instructions
+     * @param program bytecode loaded at address 0x200
+     * @param engine execution engine
+     */
+    public VirtualMachineState(byte[] program, ExecutionEngine engine) {
+        regs = new int[16];
+        memory = new byte[MEMORY_SIZE];
+        callStack = new int[STACK_LIMIT];
+        framebuffer = new long[SCREEN_HEIGHT];
+        this.engine = engine;
+        reset(program);
+    }
+
+    /**
+     * bring machine to the state after construction with another program without allocating,
+     * engine, listeners and random number generator are kept, input listener is not notified about released keys
+     * @param program bytecode loaded at address 0x200
+     */
+    public void reset(byte[] program) {
+        if(program.length > MAX_PROGRAM_SIZE) {
+            throw new IllegalArgumentException("Program too long");
+        }
+        Arrays.fill(regs, 0);
+        Arrays.fill(memory, (byte)0);
+        System.arraycopy(program, 0, memory, 0x200, program.length);
+        System.arraycopy(BuiltinSprites, 0, memory, 0, BuiltinSprites.length);
+        dirtyPages = -1;
+        callStackDepth = 0;
+        Arrays.fill(framebuffer, 0);
+        regI = 0;
+        ip = 0x200;
+        delayTimerCounter = 0;
+        soundTimerCounter = 0;
+        keypad = 0;
+    }
+
+    /**
+     * set listener notified when screen changes
+     * @param listener display listener
+     */
+    public void setDisplayListener(DisplayListener listener) {
+        displayListener = Optional.ofNullable(listener);
+    }
+
+    /**
+     * set listener notified when sound should be played
+     * @param listener sound listener
+     */
+    public void setSoundListener(SoundListener listener) {
+        soundListener = Optional.ofNullable(listener);
+    }
+
+    /**
+     * mute or unmute all listeners, used while emulating frames which are not presented (e.g. run-ahead)
+     * @param muted true to stop notifying listeners
+     */
+    public void setListenersMuted(boolean muted) {
+        listenersMuted = muted;
+    }
+
+    /**
+     * set listener notified when keypad changes
+     * @param listener input listener
+     */
+    public void setInputListener(InputListener listener) {
+        inputListener = Optional.ofNullable(listener);
+    }
+
+    /**
+     * get register value
+     * @param n register number
+     * @return selected register value
+     */
+    public int getReg(int n) {
+        switch(n) {
+            case 16: return getRegI();
+            case 17: return getIp();
+            default:
+                return regs[n];
+        }
+    }
+
+    /**
+     * set register value
+     * @param n selected register
+     * @param value new value
+     */
+    public void setReg(int n, int value) {
+        switch(n) {
+            case 16:
+                setRegI(value);
+                break;
+            case 17:
+                setIp(value);
+                break;
+            default:
+                regs[n] = value;
+        }
+    }
+
+    /**
+     * set new ip value
+     * @param value new ip value
+     */
+    public void setIp(int value) {
+        ip = value;
+    }
+
+    /**
+     * get byte from memory at address
+     * @param address address of byte
+     * @return byte from memory
+     */
+    public byte memoryGetByte(int address) {
+        return memory[address];
+    }
+
+    /**
+     * set byte in memory at address
+     * @param address address of byte
+     * @param value new byte value
+     */
+    public void memorySetByte(int address, byte value) {
+        memory[address] = value;
+        dirtyPages |= 1L << (address >> PAGE_BITS);
+        ++writes;
+    }
+
+    /**
+     * write whole memory to buffer
+     * @param buffer target buffer with at least MEMORY_SIZE bytes remaining
+     */
+    public void memoryWrite(ByteBuffer buffer) {
+        buffer.put(memory);
+    }
+
+    /**
+     * replace whole memory with bytes from buffer
+     * @param buffer source buffer with at least MEMORY_SIZE bytes remaining
+     */
+    public void memoryRead(ByteBuffer buffer) {
+        buffer.get(memory);
+        dirtyPages = -1;
+    }
+
+    /**
+     * get short from memory at address
+     * @param address address of short
+     * @return short from memory
+     */
+    public short memoryGetShort(int address) {
+        return (short)(((memory[address]<<8) & 0xff00) | (memory[address+1] & 0xff));
+    }
+    /**
+     * set short in memory at address
+     * @param address address of short
+     * @param value new short value
+     */
+    public void memorySetShort(int address, short value) {
+        memory[address] = (byte)(value >> 8);
+        memory[address+1] = (byte)value;
+        dirtyPages |= 1L << (address >> PAGE_BITS) | 1L << (address + 1 >> PAGE_BITS);
+        ++writes;
+    }
+
+    /**
+     * take snapshot of whole machine, only memory pages written since previous snapshot (or restore) are copied
+     * @return snapshot
+     */
+    public Snapshot snapshot() {
+        byte[][] pages = new byte[PAGES][];
+        int copied = 0;
+        for(int page=0; page < PAGES; ++page) {
+            if(lastSnapshot == null || (dirtyPages >>> page & 1) != 0) {
+                pages[page] = Arrays.copyOfRange(memory, page * PAGE_SIZE, (page + 1) * PAGE_SIZE);
+                ++copied;
+            } else {
+                pages[page] = lastSnapshot.pages[page];
+            }
+        }
+        long[] rows = lastSnapshot != null && Arrays.equals(lastSnapshot.framebuffer, framebuffer)
+                ? lastSnapshot.framebuffer : framebuffer.clone();
+        lastSnapshot = new Snapshot(this, pages, rows, copied);
+        dirtyPages = 0;
+        return lastSnapshot;
+    }
+
+    /**
+     * restore machine from snapshot, only memory pages which differ from the previous snapshot are copied,
+     * listeners are notified about screen and keypad
+     * @param snapshot snapshot taken from machine running the same program
+     */
+    public void restore(Snapshot snapshot) {
+        restore(snapshot, true);
+    }
+
+    /**
+     * restore machine from snapshot, only memory pages which differ from the previous snapshot are copied,
+     * listeners are notified about screen (and keypad when it is restored)
+     * @param snapshot snapshot taken from machine running the same program
+     * @param restoreKeypad false keeps keypad of machine, key events from other threads are not lost
+     */
+    public void restore(Snapshot snapshot, boolean restoreKeypad) {
+        System.arraycopy(snapshot.regs, 0, regs, 0, regs.length);
+        regI = snapshot.regI;
+        ip = snapshot.ip;
+        delayTimerCounter = snapshot.delayTimerCounter;
+        soundTimerCounter = snapshot.soundTimerCounter;
+        setCallStack(snapshot.callStack);
+        random = snapshot.random;
+        for(int page=0; page < PAGES; ++page) {
+            if(lastSnapshot == null || (dirtyPages >>> page & 1) != 0 || lastSnapshot.pages[page] != snapshot.pages[page]) {
+                System.arraycopy(snapshot.pages[page], 0, memory, page * PAGE_SIZE, PAGE_SIZE);
+            }
+        }
+        System.arraycopy(snapshot.framebuffer, 0, framebuffer, 0, SCREEN_HEIGHT);
+        lastSnapshot = snapshot;
+        dirtyPages = 0;
+        if(restoreKeypad) {
+            setKeypad(snapshot.keypad);
+        }
+        updateScreen();
+    }
+
+    /**
+     * get reg I
+     * @return I reg value
+     */
+    public int getRegI() {
+        return regI;
+    }
+
+    /**
+     * get reg ip
+     * @return ip value
+     */
+    public int getIp() { return ip; }
+
+    /**
+     * set reg I
+     * @param value new reg I value
+     */
+    public void setRegI(int value) {
+        regI = value;
+    }
+
+    /**
+     * call subroutine at address `address`
+     * @param address address to be called
+     */
+    public void callSubroutine(int address) {
+        if(callStackDepth == callStack.length) {
+            callStack = Arrays.copyOf(callStack, callStack.length * 2);
+        }
+        callStack[callStackDepth++] = ip + 2;
+        ip = address;
+    }
+
+    /**
+     * return from subroutine
+     */
+    public void returnFromSubroutine() {
+        if(callStackDepth > 0) {
+            ip = callStack[--callStackDepth];
+        }
+    }
+
+    /**
+     * jump at address
+     * @param address address to jump
+     */
+    public void jump(int address) {
+        ip = address;
+    }
+
+    /**
+     * skip next instruction
+     */
+    public void skipInstruction() {
+        ip += 4;
+    }
+
+    /**
+     * go to next instruction
+     */
+    public void nextInstruction() { ip += 2;}
+
+    /**
+     * timer interrupt
+     */
+    public void timerInterrupt() {
+        if(delayTimerCounter > 0) {
+            delayTimerCounter--;
+        }
+        if(soundTimerCounter > 0) {
+            soundTimerCounter--;
+            if(soundTimerCounter == 0 && !listenersMuted) {
+                soundListener.ifPresent(SoundListener::beep);
+            }
+        }
+    }
+
+    /**
+     * get delay timer value
+     * @return delay timer counter value
+     */
+    public int getDelayTimerCounter() {
+        return delayTimerCounter;
+    }
+
+    /**
+     * set delay timer value
+     * @param value value for delay timer to set
+     */
+    public void setDelayTimerCounter(int value) {
+        delayTimerCounter = value;
+    }
+
+    /**
+     * get sound timer value
+     * @return sound timer counter value
+     */
+    public int getSoundTimerCounter() {
+        return soundTimerCounter;
+    }
+
+    /**
+     * set sound timer counter value
+     * @param value value to be set as counter value
+     */
+    public void setSoundTimerCounter(int value) {
+        soundTimerCounter = value;
+    }
+
+    /**
+     * clear screen
+     */
+    public void clearScreen() {
+        Arrays.fill(framebuffer, 0);
+        updateScreen();
+    }
+
+    /**
+     * get pixel value
+     * @param x x coordinate
+     * @param y y coordinate
+     * @return RGB value of selected pixel (0xffffffff when set, 0 when clear or outside of screen)
+     */
+    public int getPixel(int x, int y) {
+        if(x < 0 || x >= SCREEN_WIDTH || y < 0 || y >= SCREEN_HEIGHT) {
+            return 0;
+        }
+        return (int)(framebuffer[y] >>> x & 1) * 0xffffffff;
+    }
+
+    /**
+     * set pixel value
+     * @param x x coordinate
+     * @param y y coordinate
+     * @param value new RGB value (pixel is set when value is not 0)
+     */
+    public void setPixel(int x, int y, int value) {
+        if(x < 0 || x >= SCREEN_WIDTH || y < 0 || y >= SCREEN_HEIGHT) {
+            return;
+        }
+        if(value != 0) {
+            framebuffer[y] |= 1L << x;
+        } else {
+            framebuffer[y] &= ~(1L << x);
+        }
+    }
+
+    /**
+     * get framebuffer, every row is one long with pixel x stored in bit x
+     * @return framebuffer rows (not a copy)
+     */
+    public long[] getFramebuffer() {
+        return framebuffer;
+    }
+
+    /**
+     * notify display listener that screen changed
+     */
+    public void updateScreen() {
+        // no capturing lambda, draw is called every frame
+        ++writes;
+        if(displayListener.isPresent() && !listenersMuted) {
+            displayListener.get().screenUpdated(this);
+        }
+    }
+
+    /**
+     * execute instruction at ip
+     * @throws VMException thrown on executing error
+     */
+    public void executeInstruction() throws VMException {
+        engine.step(this);
+    }
+
+    /**
+     * get engine executing instructions
+     * @return execution engine
+     */
+    public ExecutionEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * emulate one frame, execute instructions and then tick timers once, when GetKey finds no pressed key the rest
+     * of the frame is skipped because it would only execute the same GetKey again,
+     * idle loops (e.g. jump to self or polling delay timer) are fast-forwarded to the end of the frame: timers and
+     * keypad do not change inside a frame, so when a backward jump reaches the same address twice with equal
+     * registers, I, timers, call stack, keypad and random generator and without any memory write or screen update between,
+     * the machine repeats the same period until the timer tick and whole periods are skipped exactly
+     * @param instructions number of instructions executed per frame
+     * @throws VMException thrown on executing error
+     */
+    public void runFrame(int instructions) throws VMException {
+        idleLoop.ip = -1;
+        for(int i=0; i < instructions; ++i) {
+            int before = ip;
+            executeInstruction();
+            ++executedInstructions;
+            if(ip > before) {
+                continue;
+            }
+            if(ip == before && keypad == 0 && isWaitingForKey()) {
+                break;
+            }
+            if(idleLoopSkipping) {
+                if(ip == idleLoop.ip && idleLoop.matches(this)) {
+                    int period = i + 1 - idleLoop.executed;
+                    int skipped = (instructions - i - 1) / period * period;
+                    i += skipped;
+                    skippedInstructions += skipped;
+                    idleLoop.ip = -1;
+                } else {
+                    idleLoop.capture(this, i + 1);
+                }
+            }
+        }
+        timerInterrupt();
+    }
+
+    /**
+     * enable or disable fast-forwarding of idle loops in runFrame, results are the same, only speed differs
+     * @param enabled true to skip idle loops (default)
+     */
+    public void setIdleLoopSkipping(boolean enabled) {
+        idleLoopSkipping = enabled;
+    }
+
+    /**
+     * get number of instructions fast-forwarded in idle loops since creation
+     * @return skipped instructions
+     */
+    public long getSkippedInstructions() {
+        return skippedInstructions;
+    }
+
+    /**
+     * get number of instructions really executed by runFrame since creation, lower than frames times instructions
+     * per frame when idle loops were skipped or GetKey ended frames early
+     * @return executed instructions
+     */
+    public long getExecutedInstructions() {
+        return executedInstructions;
+    }
+
+    /**
+     * set instruction counters, used to take back frames which were emulated but not kept (e.g. run-ahead)
+     * @param executed executed instructions
+     * @param skipped skipped instructions
+     */
+    void setInstructionCounters(long executed, long skipped) {
+        executedInstructions = executed;
+        skippedInstructions = skipped;
+    }
+
+    /**
+     * state at target of the last backward jump in current frame, candidate start of idle loop
+     */
+    private static class IdleLoop {
+        int ip = -1;
+        int executed;
+        final int[] regs = new int[16];
+        int regI;
+        int delayTimerCounter;
+        int soundTimerCounter;
+        int[] callStack = new int[STACK_LIMIT];
+        int callStackDepth;
+        long random;
+        long writes;
+        int keypad;
+
+        void capture(VirtualMachineState state, int executed) {
+            this.ip = state.ip;
+            this.executed = executed;
+            System.arraycopy(state.regs, 0, regs, 0, regs.length);
+            regI = state.regI;
+            delayTimerCounter = state.delayTimerCounter;
+            soundTimerCounter = state.soundTimerCounter;
+            if(callStack.length < state.callStackDepth) {
+                callStack = new int[state.callStack.length];
+            }
+            System.arraycopy(state.callStack, 0, callStack, 0, state.callStackDepth);
+            callStackDepth = state.callStackDepth;
+            random = state.random;
+            writes = state.writes;
+            keypad = state.keypad;
+        }
+
+        boolean matches(VirtualMachineState state) {
+            return writes == state.writes && keypad == state.keypad && regI == state.regI && random == state.random
+                    && delayTimerCounter == state.delayTimerCounter && soundTimerCounter == state.soundTimerCounter
+                    && Arrays.equals(regs, state.regs)
+                    && Arrays.equals(callStack, 0, callStackDepth, state.callStack, 0, state.callStackDepth);
+        }
+    }
+
+    /**
+     * seed random number generator used by rand instruction, machines with the same seed and input behave the same
+     * @param seed random seed
+     */
+    public void setRandomSeed(long seed) {
+        random = scrambleSeed(seed);
+    }
+
+    /**
+     * get next random byte from xorshift64* generator owned by this machine
+     * @return random value from 0 to 255
+     */
+    public int nextRandom() {
+        random = nextRandomState(random);
+        return randomByte(random);
+    }
+
+    /**
+     * get internal state of random number generator (not the seed), used by save states
+     * @return 64 bit generator state, never 0
+     */
+    public long getRandomState() {
+        return random;
+    }
+
+    /**
+     * restore internal state of random number generator
+     * @param value 64 bit generator state from getRandomState
+     * @throws IllegalArgumentException when value is 0 (xorshift would stay 0 forever)
+     */
+    public void setRandomState(long value) {
+        if(value == 0) {
+            throw new IllegalArgumentException("Random generator state cannot be 0");
+        }
+        random = value;
+    }
+
+    /**
+     * turn seed into generator state with splitmix64 finalizer, so close seeds give unrelated sequences
+     * @param seed any seed
+     * @return nonzero generator state
+     */
+    static long scrambleSeed(long seed) {
+        long z = seed + RANDOM_GOLDEN_GAMMA;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z ^= z >>> 31;
+        return z == 0 ? RANDOM_GOLDEN_GAMMA : z;
+    }
+
+    /**
+     * advance xorshift64 generator state
+     * @param state nonzero generator state
+     * @return next state
+     */
+    static long nextRandomState(long state) {
+        state ^= state << 13;
+        state ^= state >>> 7;
+        state ^= state << 17;
+        return state;
+    }
+
+    /**
+     * get random byte from generator state, the top bits of the scrambled state (xorshift64*) are the best ones
+     * @param state generator state
+     * @return value from 0 to 255
+     */
+    static int randomByte(long state) {
+        return (int)((state * RANDOM_OUTPUT_MULTIPLIER) >>> 56);
+    }
+
+    /**
+     * get number of return addresses on call stack
+     * @return call stack depth
+     */
+    public int getCallStackDepth() {
+        return callStackDepth;
+    }
+
+    /**
+     * get return addresses on call stack
+     * @return copy of call stack, the most recent call is last
+     */
+    public int[] getCallStack() {
+        return Arrays.copyOf(callStack, callStackDepth);
+    }
+
+    /**
+     * replace return addresses on call stack
+     * @param addresses return addresses, the most recent call is last
+     */
+    public void setCallStack(int[] addresses) {
+        if(addresses.length > callStack.length) {
+            callStack = Arrays.copyOf(callStack, addresses.length);
+        }
+        System.arraycopy(addresses, 0, callStack, 0, addresses.length);
+        callStackDepth = addresses.length;
+    }
+
+    /**
+     * press or release key on keypad, the bit is changed atomically so keys changed by other threads are not lost
+     * @param key key number (0 - 15)
+     * @param pressed true when key is pressed, false when released
+     */
+    public void setKeyPressed(int key, boolean pressed) {
+        if(key < 0 || key >= 16) {
+            return;
+        }
+        int old = pressed ? (int)KEYPAD.getAndBitwiseOr(this, 1 << key) : (int)KEYPAD.getAndBitwiseAnd(this, ~(1 << key));
+        keypadChanged(old, pressed ? old | (1 << key) : old & ~(1 << key));
+    }
+
+    /**
+     * set state of whole keypad at once
+     * @param mask bitmask of pressed keys (bit n is set when key n is pressed)
+     */
+    public void setKeypad(int mask) {
+        int masked = mask & 0xffff;
+        keypadChanged((int)KEYPAD.getAndSet(this, masked), masked);
+    }
+
+    private void keypadChanged(int old, int mask) {
+        if(old != mask && !listenersMuted && inputListener.isPresent()) {
+            inputListener.get().keypadChanged(mask);
+        }
+    }
+
+    /**
+     * get state of keypad
+     * @return bitmask of pressed keys (bit n is set when key n is pressed)
+     */
+    public int getKeypad() {
+        return keypad;
+    }
+
+    /**
+     * get pressed key with the lowest number, reads keypad once without allocation
+     * @return pressed key or -1 when no key is pressed
+     */
+    public int getPressedKey() {
+        int mask = keypad;
+        return mask == 0 ? -1 : Integer.numberOfTrailingZeros(mask);
+    }
+
+    /**
+     * check if machine is blocked by GetKey instruction, such machine does nothing but ticking timers until
+     * a key is pressed
+     * @return true when next instruction is GetKey and no key is pressed
+     */
+    public boolean isWaitingForKey() {
+        return keypad == 0 && ip >= 0 && ip + 1 < MEMORY_SIZE && (memoryGetShort(ip) & 0xF0FF) == 0xF00A;
+    }
+
+    /**
+     * check if key is pressed
+     * @param key key to be checked
+     * @return true if key is pressed, false otherwise
+     */
+    public boolean isKeyPressed(int key) {
+        if(key < 0 || key >= 16) {
+            return false;
+        }
+        return (keypad >> key & 1) != 0;
+    }
+
+    /**
+     * get sprite address from memory
+     * @param n spire number
+     * @return address of sprite
+     */
+    public int getSpriteAddress(int n) {
+        if(n < 16) {
+            return n * 5;
+        } else {
+            return 0;
+        }
+    }
+
+    /**
+     * builtin sprites
+     */
+    public static byte[] BuiltinSprites = {
+            (byte)0xF0, (byte)0x90, (byte)0x90, (byte)0x90, (byte)0xF0, // 0
+            (byte)0x20, (byte)0x60, (byte)0x20, (byte)0x20, (byte)0x70, // 1
+            (byte)0xF0, (byte)0x10, (byte)0xF0, (byte)0x80, (byte)0xF0, // 2
+            (byte)0xF0, (byte)0x10, (byte)0xF0, (byte)0x10, (byte)0xF0, // 3
+            (byte)0x90, (byte)0x90, (byte)0xF0, (byte)0x10, (byte)0x10, // 4
+            (byte)0xF0, (byte)0x80, (byte)0xF0, (byte)0x10, (byte)0xF0, // 5
+            (byte)0xF0, (byte)0x80, (byte)0xF0, (byte)0x90, (byte)0xF0, // 6
+            (byte)0xF0, (byte)0x10, (byte)0x20, (byte)0x40, (byte)0x40, // 7
+            (byte)0xF0, (byte)0x90, (byte)0xF0, (byte)0x90, (byte)0xF0, // 8
+            (byte)0xF0, (byte)0x90, (byte)0xF0, (byte)0x10, (byte)0xF0, // 9
+            (byte)0xF0, (byte)0x90, (byte)0xF0, (byte)0x90, (byte)0x90, // 10
+            (byte)0xE0, (byte)0x90, (byte)0xE0, (byte)0x90, (byte)0xE0, // 11
+            (byte)0xF0, (byte)0x80, (byte)0x80, (byte)0x80, (byte)0xF0, // 12
+            (byte)0xE0, (byte)0x90, (byte)0x90, (byte)0x90, (byte)0xE0, // 13
+            (byte)0xF0, (byte)0x80, (byte)0xF0, (byte)0x80, (byte)0xF0, // 14
+            (byte)0xF0, (byte)0x80, (byte)0xF0, (byte)0x80, (byte)0x80, // 15
+    };
+}
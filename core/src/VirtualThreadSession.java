@@ -0,0 +1,256 @@
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * virtual machine running on its own thread (virtual thread on Java 21 or newer), the thread blocks instead of
+ * polling: it sleeps until the next frame deadline, waits for keypad change while machine is blocked by GetKey
+ * with both timers stopped and waits for resume while paused, blocked virtual threads release their carrier
+ * so idle sessions cost only their memory, keypad is latched at the start of every frame, so the input of a
+ * session can be recorded to InputMovie and replayed exactly
+ */
+public class VirtualThreadSession implements EmulatorSession {
+    private final VirtualMachineState state;
+    private final int instructionsPerFrame;
+    private final int framesPerSecond;
+    private final InputMovie movie;
+    private final Thread thread;
+    // ReentrantLock instead of synchronized, virtual thread waiting on monitor would pin its carrier
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private volatile Status status = Status.Running;
+    private volatile String fault = null;
+    private volatile long frames = 0;
+    private volatile int keypad;
+    private volatile boolean rebase = false;
+    // guarded by lock, true while the thread executes a frame
+    private boolean inFrame = false;
+
+    /**
+     * create session and start its thread
+     * @param name thread name
+     * @param state virtual machine
+     * @param instructionsPerFrame instructions executed per frame
+     * @param framesPerSecond frames emulated per second, 0 runs machine as fast as possible
+     */
+    public VirtualThreadSession(String name, VirtualMachineState state, int instructionsPerFrame, int framesPerSecond) {
+        this(name, state, instructionsPerFrame, framesPerSecond, null);
+    }
+
+    /**
+     * create session recording keypad of every emulated frame and start its thread
+     * @param name thread name
+     * @param state virtual machine created by movie.createMachine
+     * @param instructionsPerFrame instructions executed per frame
+     * @param framesPerSecond frames emulated per second, 0 runs machine as fast as possible
+     * @param movie empty movie the input is recorded to, it may be finished and saved while session is paused,
+     *              null records nothing
+     * @throws IllegalArgumentException when movie has other instructions per frame
+     */
+    public VirtualThreadSession(String name, VirtualMachineState state, int instructionsPerFrame, int framesPerSecond, InputMovie movie) {
+        if(movie != null && movie.getInstructionsPerFrame() != instructionsPerFrame) {
+            throw new IllegalArgumentException("Movie has " + movie.getInstructionsPerFrame() + " instructions per frame");
+        }
+        this.state = state;
+        this.instructionsPerFrame = instructionsPerFrame;
+        this.framesPerSecond = framesPerSecond;
+        this.movie = movie;
+        keypad = state.getKeypad();
+        thread = VirtualThreads.newThread(name, this::run);
+        thread.start();
+    }
+
+    /**
+     * get virtual machine, it may be read or modified only while session is paused
+     * @return virtual machine
+     */
+    @Override
+    public VirtualMachineState getState() {
+        return state;
+    }
+
+    /**
+     * get status
+     * @return current status
+     */
+    @Override
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * get reason of fault
+     * @return error message or null when session did not fault
+     */
+    @Override
+    public String getFault() {
+        return fault;
+    }
+
+    /**
+     * get number of emulated frames, frames skipped while waiting for key are not counted
+     * @return frames
+     */
+    @Override
+    public long getFrames() {
+        return frames;
+    }
+
+    /**
+     * set pressed keys, may be called from any thread, wakes machine waiting for key, the machine sees them
+     * from the next frame
+     * @param keypad bitmask of pressed keys
+     */
+    @Override
+    public void setKeypad(int keypad) {
+        this.keypad = keypad & 0xffff;
+        signal();
+    }
+
+    /**
+     * stop running the session, waits until the frame being executed is finished, so the machine can be used
+     * when it returns
+     */
+    @Override
+    public void pause() {
+        lock.lock();
+        try {
+            if(status == Status.Running) {
+                status = Status.Paused;
+            }
+            // a listener called by the frame itself cannot wait for its end
+            while(inFrame && Thread.currentThread() != thread) {
+                changed.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * continue paused session, frames missed while paused are not emulated
+     */
+    @Override
+    public void resume() {
+        if(status == Status.Paused) {
+            status = Status.Running;
+            signal();
+        }
+    }
+
+    /**
+     * stop the session and its thread
+     */
+    @Override
+    public void stop() {
+        if(status != Status.Faulted) {
+            status = Status.Stopped;
+        }
+        signal();
+        thread.interrupt();
+    }
+
+    /**
+     * wait until thread of the session ends
+     * @throws InterruptedException when interrupted while waiting
+     */
+    public void join() throws InterruptedException {
+        thread.join();
+    }
+
+    private void signal() {
+        lock.lock();
+        try {
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void run() {
+        long period = framesPerSecond > 0 ? 1_000_000_000L / framesPerSecond : 0;
+        long next = System.nanoTime();
+        try {
+            while(true) {
+                if(!awaitRunnable()) {
+                    return;
+                }
+                if(rebase) {
+                    rebase = false;
+                    next = System.nanoTime();
+                }
+                try {
+                    int frameKeypad = keypad;
+                    state.setKeypad(frameKeypad);
+                    if(movie != null) {
+                        movie.record(frameKeypad);
+                    }
+                    state.runFrame(instructionsPerFrame);
+                    ++frames;
+                } finally {
+                    endFrame();
+                }
+                if(period > 0) {
+                    next += period;
+                    long wait = next - System.nanoTime();
+                    if(wait > 0) {
+                        TimeUnit.NANOSECONDS.sleep(wait);
+                    } else if(-wait > VirtualMachinePool.MAX_LAG_FRAMES * period) {
+                        next = System.nanoTime();
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            if(status == Status.Running || status == Status.Paused) {
+                status = Status.Stopped;
+            }
+        } catch (VirtualMachineState.VMException error) {
+            fail(error.reason);
+        } catch (RuntimeException error) {
+            fail(error.toString());
+        }
+    }
+
+    /**
+     * block while session is paused or machine waits for key with nothing else to do,
+     * skipping such frames is exact because they would only execute GetKey again,
+     * a running session is marked as executing a frame before the lock is released, so pause cannot slip in
+     * between the check and the frame
+     * @return false when session was stopped or faulted
+     */
+    private boolean awaitRunnable() throws InterruptedException {
+        lock.lock();
+        try {
+            while(status == Status.Paused || status == Status.Running && isIdle()) {
+                rebase = true;
+                changed.await();
+            }
+            inFrame = status == Status.Running;
+            return inFrame;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * mark frame as finished and wake threads waiting in pause
+     */
+    private void endFrame() {
+        lock.lock();
+        try {
+            inFrame = false;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean isIdle() {
+        return keypad == 0 && state.getDelayTimerCounter() == 0 && state.getSoundTimerCounter() == 0 && state.isWaitingForKey();
+    }
+
+    private void fail(String reason) {
+        fault = reason;
+        status = Status.Faulted;
+    }
+}
@@ -0,0 +1,63 @@
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * creates virtual threads when running on Java 21 or newer and daemon platform threads otherwise,
+ * the build targets older Java so virtual thread API is looked up reflectively
+ */
+public class VirtualThreads {
+    private static final Object BUILDER;
+    private static final Method UNSTARTED;
+
+    static {
+        Object builder = null;
+        Method unstarted = null;
+        try {
+            builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            unstarted = Class.forName("java.lang.Thread$Builder").getMethod("unstarted", Runnable.class);
+        } catch (ReflectiveOperationException ignored) {
+            builder = null;
+        }
+        BUILDER = builder;
+        UNSTARTED = unstarted;
+    }
+
+    /**
+     * check whether virtual threads are available
+     * @return true on Java 21 or newer
+     */
+    public static boolean isSupported() {
+        return BUILDER != null;
+    }
+
+    /**
+     * create thread which is not started yet
+     * @param name thread name
+     * @param task task run by thread
+     * @return virtual thread if supported, daemon platform thread otherwise
+     */
+    public static Thread newThread(String name, Runnable task) {
+        if(BUILDER != null) {
+            try {
+                Thread thread = (Thread) UNSTARTED.invoke(BUILDER, task);
+                thread.setName(name);
+                return thread;
+            } catch (ReflectiveOperationException ignored) {
+            }
+        }
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /**
+     * create thread factory
+     * @param prefix prefix of thread names
+     * @return factory creating virtual threads if supported
+     */
+    public static ThreadFactory factory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return task -> newThread(prefix + counter.getAndIncrement(), task);
+    }
+}
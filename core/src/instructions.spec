@@ -0,0 +1,234 @@
+# CHIP-8 instruction set, InstructionSet, InstructionVisitor.Visitor and InstructionRegistry are generated from this file
+#
+# every instruction starts with line: <class name> <opcode pattern> <mnemonic>
+# opcode pattern is made of hex digits which have to match and arguments:
+# NNN - 12 bit immediate, X NN - register and 8 bit immediate, X Y - two registers,
+# X - one register, X Y N - two registers and 4 bit immediate
+# indented lines that follow are the body of execute(VirtualMachineState state)
+
+import java.util.Optional;
+
+Call 0NNN call
+    state.callSubroutine(getValueNNN());
+
+DisplayClear 00E0 clear
+    state.clearScreen();
+    state.nextInstruction();
+
+Return 00EE ret
+    state.returnFromSubroutine();
+
+Jump 1NNN jmp
+    state.jump(getValueNNN());
+
+CallWordPtr 2NNN callptr
+    state.callSubroutine(getValueNNN() & 0xfff);
+
+SkipEqualImm 3XNN skeqi
+    int reg = state.getReg(getValueX());
+    if (reg == (getValueNN() & 0xff)) {
+        state.skipInstruction();
+    } else {
+        state.nextInstruction();
+    }
+
+SkipNotEqualImm 4XNN skneqi
+    int reg = state.getReg(getValueX());
+    if (reg != (getValueNN() & 0xff)) {
+        state.skipInstruction();
+    } else {
+        state.nextInstruction();
+    }
+
+SkipEqualReg 5XY0 skeqr
+    int reg1 = state.getReg(getValueX());
+    int reg2 = state.getReg(getValueY());
+    if (reg1 == reg2) {
+        state.skipInstruction();
+    } else {
+        state.nextInstruction();
+    }
+
+LoadImm 6XNN li
+    state.setReg(getValueX(), 0xff & getValueNN());
+    state.nextInstruction();
+
+AddImm 7XNN addi
+    state.setReg(getValueX(), 0xff & (state.getReg(getValueX()) + getValueNN()));
+    state.nextInstruction();
+
+Mov 8XY0 mov
+    state.setReg(getValueX(), state.getReg(getValueY()));
+    state.nextInstruction();
+
+Or 8XY1 or
+    state.setReg(getValueX(), 0xFF & (state.getReg(getValueX()) | state.getReg(getValueY())));
+    state.nextInstruction();
+
+And 8XY2 and
+    state.setReg(getValueX(), 0xff & (state.getReg(getValueX()) & state.getReg(getValueY())));
+    state.nextInstruction();
+
+Xor 8XY3 xor
+    state.setReg(getValueX(), 0xff & (state.getReg(getValueX()) ^ state.getReg(getValueY())));
+    state.nextInstruction();
+
+Add 8XY4 add
+    int result = state.getReg(getValueX()) + state.getReg(getValueY());
+    if (result > 0xff) {
+        state.setReg(15, 1);
+    } else {
+        state.setReg(15, 0);
+    }
+    state.setReg(getValueX(), result & 0xff);
+    state.nextInstruction();
+
+Sub 8XY5 sub
+    int result = state.getReg(getValueX()) - state.getReg(getValueY());
+    if (result < 0) {
+        state.setReg(15, 1);
+    } else {
+        state.setReg(15, 0);
+    }
+    state.setReg(getValueX(), result & 0xff);
+    state.nextInstruction();
+
+RShift1 8X06 shr1
+    state.setReg(15, state.getReg(getValueX()) & 1);
+    state.setReg(getValueX(), state.getReg(getValueX()) >>> 1);
+    state.nextInstruction();
+
+SubR 8XY7 subr
+    int result = state.getReg(getValueY()) - state.getReg(getValueX());
+    if (result < 0) {
+        state.setReg(15, 1);
+    } else {
+        state.setReg(15, 0);
+    }
+    state.setReg(getValueX(), result & 0xff);
+    state.nextInstruction();
+
+LShift1 8X0E shl1
+    int reg = state.getReg(getValueX());
+    state.setReg(15, reg >> 7);
+    state.setReg(getValueX(), (reg << 1) & 0xfe);
+    state.nextInstruction();
+
+SkipNotEqualReg 9XY0 skneqr
+    if (state.getReg(getValueX()) != state.getReg(getValueY())) {
+        state.skipInstruction();
+    } else {
+        state.nextInstruction();
+    }
+
+LoadRegI ANNN loadI
+    state.setRegI(getValueNNN());
+    state.nextInstruction();
+
+BranchRelv0 BNNN brelv0
+    state.jump(state.getReg(0) + getValueNNN());
+
+Rand CXNN rand
+    state.setReg(getValueX(), state.nextRandom() & getValueNN());
+    state.nextInstruction();
+
+DrawSprite DXYN draw
+    int x = state.getReg(getValueX());
+    int y = state.getReg(getValueY());
+    int n = getValueN();
+    int address = state.getRegI();
+    boolean flipped = false;
+    for (int i = 0; i < n; ++i) {
+        int sprite = state.memoryGetByte(address + i) & 0xff;
+        for (int j = 0; j < 8; ++j) {
+            int bit = (sprite >> (7 - j)) & 1;
+            if (bit != 0 && state.getPixel(x + j, y) == 0xffffff) {
+                flipped = true;
+            }
+            int cordX = x + j;
+            int cordY = y + i;
+            int currentValue = state.getPixel(cordX, cordY) & 0x01;
+            int newValue = 0xffffffff * (currentValue ^ bit);
+            state.setPixel(cordX, cordY, newValue);
+        }
+    }
+    if (flipped) {
+        state.setReg(15, 1);
+    } else {
+        state.setReg(15, 0);
+    }
+    state.updateScreen();
+    state.nextInstruction();
+
+SkipEqualKey EX9E skeqkey
+    int value = state.getReg(getValueX());
+    if(state.isKeyPressed(value)) {
+        state.skipInstruction();
+    } else {
+        state.nextInstruction();
+    }
+
+SkipNotEqualKey EXA1 skneqkey
+    int value = state.getReg(getValueX());
+    if(!state.isKeyPressed(value)) {
+        state.skipInstruction();
+    } else {
+        state.nextInstruction();
+    }
+
+GetDelayTimerCounter FX07 gdtc
+    state.setReg(getValueX(), state.getDelayTimerCounter());
+    state.nextInstruction();
+
+GetKey FX0A gkey
+    int key = state.getPressedKey();
+    if(key >= 0) {
+        state.setReg(getValueX(), key);
+        state.nextInstruction();
+    }
+
+SetDelayTimerCounter FX15 sdtc
+    state.setDelayTimerCounter(state.getReg(getValueX()));
+    state.nextInstruction();
+
+SetSoundTimerCounter FX18 sstc
+    state.setSoundTimerCounter(state.getReg(getValueX()));
+    state.nextInstruction();
+
+AddRegI FX1E addI
+    int value = state.getRegI() + state.getReg(getValueX());
+    if(value > 0xfff) {
+        state.setReg(15 ,1);
+    } else {
+        state.setReg(15 ,0);
+    }
+    state.setRegI(value);
+    state.nextInstruction();
+
+GetSpriteAddress FX29 gsprite
+    state.setRegI(state.getSpriteAddress(getValueX()));
+    state.nextInstruction();
+
+StoreBCD FX33 sbcd
+    int value = state.getReg(getValueX());
+    int address = state.getRegI();
+    state.memorySetByte(address + 0, (byte) ((value / 100) & 0xff));
+    state.memorySetByte(address + 1, (byte) (((value / 10) % 10) & 0xff));
+    state.memorySetByte(address + 2, (byte) ((value % 10) & 0xff));
+    state.nextInstruction();
+
+RegDump FX55 regdump
+    int address = state.getRegI();
+    int end = getValueX();
+    for (int i = 0; i < end; ++i) {
+        state.memorySetByte(address + i, (byte) (0xff & state.getReg(i)));
+    }
+    state.nextInstruction();
+
+RegLoad FX65 regload
+    int address = state.getRegI();
+    int end = getValueX();
+    for (int i = 0; i < end; ++i) {
+        state.setReg(i, state.memoryGetByte(address + i) & 0xff);
+    }
+    state.nextInstruction();
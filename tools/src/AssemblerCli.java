@@ -0,0 +1,31 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * command line assembler, writes bytecode of assembly file
+ */
+public class AssemblerCli {
+    /**
+     * assemble file
+     * @param argv input assembly path and output bytecode path
+     * @throws Exception when instruction factories cannot be set up
+     */
+    public static void main(String[] argv) throws Exception {
+        if(argv.length != 2) {
+            System.err.println("usage: AssemblerCli <input.asm> <output.ch8>");
+            System.exit(2);
+        }
+        Assembler assembler = new Assembler(InstructionFactory.factoriesByMnemonic());
+        try {
+            String assembly = new String(Files.readAllBytes(Paths.get(argv[0])));
+            Files.write(Paths.get(argv[1]), assembler.generateByteCode(assembly, 0));
+        } catch (Assembler.AssemblerException error) {
+            System.err.println(argv[0] + ":" + (error.getLineNumber() + 1) + ": " + error.getMsg());
+            System.exit(1);
+        } catch (IOException error) {
+            System.err.println(error.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,194 @@
+import java.nio.file.Paths;
+import java.util.Random;
+
+/**
+ * runs many copies of one ROM in BatchedMachines with different seeds and input, reports aggregate throughput
+ * compared to the same number of separate VirtualMachineState objects, --verify compares every machine with
+ * VirtualMachineState after every frame
+ */
+public class BatchRunner {
+    private static final int INPUT_PERIOD = 30;
+
+    /**
+     * command line entry, exits with 1 when verification fails
+     * @param argv ROM and options
+     * @throws Exception on error
+     */
+    public static void main(String[] argv) throws Exception {
+        String rom = null;
+        int machines = 256;
+        int frames = HeadlessRunner.DEFAULT_FRAMES;
+        int instructionsPerFrame = HeadlessRunner.DEFAULT_INSTRUCTIONS_PER_FRAME;
+        boolean verify = false;
+        try {
+            for(int i=0; i < argv.length; ++i) {
+                switch(argv[i]) {
+                    case "--machines": machines = Integer.parseInt(argv[++i]); break;
+                    case "--frames": frames = Integer.parseInt(argv[++i]); break;
+                    case "--ipf": instructionsPerFrame = Integer.parseInt(argv[++i]); break;
+                    case "--verify": verify = true; break;
+                    default:
+                        if(argv[i].startsWith("--") || rom != null) {
+                            throw new IllegalArgumentException("Unknown argument " + argv[i]);
+                        }
+                        rom = argv[i];
+                }
+            }
+            if(rom == null) {
+                throw new IllegalArgumentException("Missing ROM");
+            }
+        } catch (IllegalArgumentException | IndexOutOfBoundsException error) {
+            System.err.println(error.getMessage());
+            System.err.println("usage: BatchRunner <rom|file.asm> [--machines N] [--frames N] [--ipf N] [--verify]");
+            System.exit(2);
+        }
+
+        byte[] program = new RomLoader().load(Paths.get(rom));
+        if(verify) {
+            int failures = verify(program, machines, frames, instructionsPerFrame);
+            System.out.println(failures == 0 ? machines + " machines match VirtualMachineState" : failures + " machines diverged");
+            if(failures > 0) {
+                System.exit(1);
+            }
+            return;
+        }
+        // first run of each warms up the JIT
+        for(int run=0; run < 2; ++run) {
+            double batched = runBatched(program, machines, frames, instructionsPerFrame);
+            double separate = runSeparate(program, machines, frames, instructionsPerFrame);
+            System.out.println(String.format("%s %d machines: batched %.0f instructions/s, separate %.0f instructions/s (%.2fx)",
+                    run == 0 ? "warmup" : "measured", machines, batched, separate, batched / separate));
+        }
+    }
+
+    /**
+     * get keypad of machine in frame, every machine presses different keys
+     * @param input random generator of machine
+     * @param frame frame number
+     * @param current current keypad
+     * @return new keypad
+     */
+    private static int nextKeypad(Random input, int frame, int current) {
+        if(frame % INPUT_PERIOD != 0) {
+            return current;
+        }
+        int key = input.nextInt(17);
+        return key == 16 ? 0 : 1 << key;
+    }
+
+    private static double runBatched(byte[] program, int machines, int frames, int instructionsPerFrame) {
+        BatchedMachines batch = new BatchedMachines(program, machines);
+        Random[] inputs = new Random[machines];
+        int[] keypads = new int[machines];
+        for(int machine=0; machine < machines; ++machine) {
+            batch.reset(machine, machine);
+            inputs[machine] = new Random(machine);
+        }
+        long start = System.nanoTime();
+        for(int frame=0; frame < frames; ++frame) {
+            for(int machine=0; machine < machines; ++machine) {
+                keypads[machine] = nextKeypad(inputs[machine], frame, keypads[machine]);
+                batch.setKeypad(machine, keypads[machine]);
+            }
+            batch.runFrame(instructionsPerFrame);
+        }
+        return batch.getInstructions() * 1e9 / (System.nanoTime() - start);
+    }
+
+    private static double runSeparate(byte[] program, int machines, int frames, int instructionsPerFrame) {
+        VirtualMachineState[] states = createStates(program, machines);
+        Random[] inputs = new Random[machines];
+        int[] keypads = new int[machines];
+        boolean[] faulted = new boolean[machines];
+        for(int machine=0; machine < machines; ++machine) {
+            inputs[machine] = new Random(machine);
+        }
+        long start = System.nanoTime();
+        for(int frame=0; frame < frames; ++frame) {
+            for(int machine=0; machine < machines; ++machine) {
+                keypads[machine] = nextKeypad(inputs[machine], frame, keypads[machine]);
+                if(faulted[machine]) {
+                    continue;
+                }
+                states[machine].setKeypad(keypads[machine]);
+                try {
+                    states[machine].runFrame(instructionsPerFrame);
+                } catch (VirtualMachineState.VMException | RuntimeException error) {
+                    faulted[machine] = true;
+                }
+            }
+        }
+        long nanos = System.nanoTime() - start;
+        // frames ended early by GetKey execute fewer instructions, count what really ran like the batch does
+        long instructions = 0;
+        for(VirtualMachineState state : states) {
+            instructions += state.getExecutedInstructions();
+        }
+        return instructions * 1e9 / nanos;
+    }
+
+    private static VirtualMachineState[] createStates(byte[] program, int machines) {
+        ExecutionEngine engine = new SwitchEngine();
+        VirtualMachineState[] states = new VirtualMachineState[machines];
+        for(int machine=0; machine < machines; ++machine) {
+            states[machine] = new VirtualMachineState(program, engine);
+            states[machine].setRandomSeed(machine);
+            // batch does not skip idle loops, throughput would not be comparable
+            states[machine].setIdleLoopSkipping(false);
+        }
+        return states;
+    }
+
+    private static int verify(byte[] program, int machines, int frames, int instructionsPerFrame) {
+        BatchedMachines batch = new BatchedMachines(program, machines);
+        VirtualMachineState[] states = createStates(program, machines);
+        VirtualMachineState copy = new VirtualMachineState(new byte[0], new SwitchEngine());
+        Random[] inputs = new Random[machines];
+        int[] keypads = new int[machines];
+        boolean[] done = new boolean[machines];
+        int failures = 0;
+        for(int machine=0; machine < machines; ++machine) {
+            batch.reset(machine, machine);
+            inputs[machine] = new Random(machine);
+        }
+        for(int frame=0; frame < frames; ++frame) {
+            for(int machine=0; machine < machines; ++machine) {
+                keypads[machine] = nextKeypad(inputs[machine], frame, keypads[machine]);
+                batch.setKeypad(machine, keypads[machine]);
+            }
+            batch.runFrame(instructionsPerFrame);
+            for(int machine=0; machine < machines; ++machine) {
+                if(done[machine]) {
+                    continue;
+                }
+                VirtualMachineState state = states[machine];
+                String error = null;
+                state.setKeypad(keypads[machine]);
+                try {
+                    state.runFrame(instructionsPerFrame);
+                } catch (VirtualMachineState.VMException e) {
+                    error = e.reason;
+                } catch (RuntimeException e) {
+                    error = e.toString();
+                }
+                if(error != null || batch.isFaulted(machine)) {
+                    done[machine] = true;
+                    if(error == null || !batch.isFaulted(machine)) {
+                        ++failures;
+                        System.out.println(String.format("machine %d frame %d: VirtualMachineState %s, batch %s", machine, frame,
+                                error == null ? "ok" : error, batch.isFaulted(machine) ? batch.getFault(machine) : "ok"));
+                    }
+                    continue;
+                }
+                batch.copyTo(machine, copy);
+                if(StateHash.registers(copy) != StateHash.registers(state) || StateHash.memory(copy) != StateHash.memory(state)
+                        || StateHash.framebuffer(copy) != StateHash.framebuffer(state)) {
+                    done[machine] = true;
+                    ++failures;
+                    System.out.println(String.format("machine %d diverged in frame %d", machine, frame));
+                }
+            }
+        }
+        return failures;
+    }
+}
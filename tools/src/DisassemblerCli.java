@@ -0,0 +1,32 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * command line disassembler, prints or writes assembly of bytecode file
+ */
+public class DisassemblerCli {
+    /**
+     * disassemble file
+     * @param argv input bytecode path and optional output assembly path (stdout when missing)
+     * @throws Exception when instruction factories cannot be set up
+     */
+    public static void main(String[] argv) throws Exception {
+        if(argv.length < 1 || argv.length > 2) {
+            System.err.println("usage: DisassemblerCli <input.ch8> [output.asm]");
+            System.exit(2);
+        }
+        Disassembler disassembler = new Disassembler(InstructionFactory.factoriesByIndex(), InstructionFactory.decodeTable());
+        try {
+            String assembly = disassembler.disassemble(Files.readAllBytes(Paths.get(argv[0])));
+            if(argv.length == 2) {
+                Files.write(Paths.get(argv[1]), assembly.getBytes());
+            } else {
+                System.out.print(assembly);
+            }
+        } catch (IOException error) {
+            System.err.println(error.getMessage());
+            System.exit(1);
+        }
+    }
+}
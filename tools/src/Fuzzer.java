@@ -0,0 +1,390 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * fuzzer generating random and mutated ROM images and running them on several execution engines,
+ * crashes (exceptions other than invalid opcode, call stack deeper than STACK_LIMIT) and engine divergences
+ * are minimised and written to the output directory, every worker thread owns its engines so workers share
+ * nothing but counters and the set of already seen failures
+ */
+public class Fuzzer {
+    private static final int INSTRUCTIONS_PER_FRAME = HeadlessRunner.DEFAULT_INSTRUCTIONS_PER_FRAME;
+
+    /**
+     * result of running image on one engine
+     */
+    private static class Outcome {
+        String kind;
+        String message;
+        String location = "";
+        long hash;
+        long instructions;
+
+        /**
+         * check whether this outcome is a crash
+         * @return true for crash
+         */
+        boolean isCrash() {
+            return kind.equals("crash") || kind.equals("stack fault");
+        }
+
+        boolean sameAs(Outcome other) {
+            return kind.equals(other.kind) && message.equals(other.message) && hash == other.hash && instructions == other.instructions;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s %s%s after %d instructions, state %016x", kind, message, location, instructions, hash);
+        }
+    }
+
+    private String[] engineNames;
+    private int instructionLimit;
+    private Path outputDir;
+    private List<byte[]> corpus;
+    private Disassembler disassembler;
+    private byte[] decodeTable;
+
+    private LongAdder cases = new LongAdder();
+    private LongAdder instructions = new LongAdder();
+    private ConcurrentHashMap<String, Path> failures = new ConcurrentHashMap<>();
+    private AtomicBoolean running = new AtomicBoolean(true);
+
+    /**
+     * create fuzzer
+     * @param engineNames names of engines compared with each other
+     * @param instructionLimit maximum number of instructions executed by one case
+     * @param outputDir directory for reproducers
+     * @param corpus ROMs used as base for mutations (may be empty)
+     * @throws Exception when instruction factories cannot be set up
+     */
+    public Fuzzer(String[] engineNames, int instructionLimit, Path outputDir, List<byte[]> corpus) throws Exception {
+        this.engineNames = engineNames;
+        this.instructionLimit = instructionLimit;
+        this.outputDir = outputDir;
+        this.corpus = corpus;
+        disassembler = new Disassembler(InstructionFactory.factoriesByIndex(), InstructionFactory.decodeTable());
+        decodeTable = InstructionFactory.decodeTable();
+    }
+
+    /**
+     * run workers until time runs out
+     * @param workers number of worker threads
+     * @param seconds run time, 0 runs until the process is killed
+     * @param seed base seed, worker n uses seed + n
+     * @throws InterruptedException when interrupted
+     */
+    public void run(int workers, long seconds, long seed) throws InterruptedException {
+        ArrayList<Thread> threads = new ArrayList<>();
+        for(int i=0; i < workers; ++i) {
+            long workerSeed = seed + i;
+            Thread thread = new Thread(() -> work(workerSeed), "fuzzer-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+        long start = System.nanoTime();
+        long end = seconds > 0 ? start + seconds * 1_000_000_000L : Long.MAX_VALUE;
+        long lastCases = 0;
+        long lastInstructions = 0;
+        long last = start;
+        while(System.nanoTime() < end) {
+            Thread.sleep(Math.max(1, Math.min(10_000, (end - System.nanoTime()) / 1_000_000)));
+            long now = System.nanoTime();
+            long currentCases = cases.sum();
+            long currentInstructions = instructions.sum();
+            double elapsed = (now - last) / 1e9;
+            System.out.println(String.format("%6.0fs %10d cases %10.0f cases/s %12.0f instructions/s %4d unique failures",
+                    (now - start) / 1e9, currentCases, (currentCases - lastCases) / elapsed,
+                    (currentInstructions - lastInstructions) / elapsed, failures.size()));
+            lastCases = currentCases;
+            lastInstructions = currentInstructions;
+            last = now;
+        }
+        running.set(false);
+        for(Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    private void work(long seed) {
+        Random random = new Random(seed);
+        ExecutionEngine[] engines = createEngines();
+        while(running.get()) {
+            long caseSeed = random.nextLong();
+            byte[] image = corpus.isEmpty() || random.nextBoolean() ? generate(random) : mutate(random);
+            Outcome[] outcomes = execute(engines, image, caseSeed);
+            cases.increment();
+            instructions.add(outcomes[0].instructions * engines.length);
+            String signature = signature(outcomes);
+            if(signature != null && !failures.containsKey(signature)) {
+                byte[] minimised = minimise(engines, image, caseSeed, signature);
+                if(failures.putIfAbsent(signature, outputDir) == null) {
+                    record(signature, minimised, caseSeed, execute(engines, minimised, caseSeed));
+                }
+            }
+        }
+    }
+
+    private ExecutionEngine[] createEngines() {
+        ExecutionEngine[] engines = new ExecutionEngine[engineNames.length];
+        for(int i=0; i < engines.length; ++i) {
+            engines[i] = ExecutionEngine.byName(engineNames[i], disassembler);
+        }
+        return engines;
+    }
+
+    private Outcome[] execute(ExecutionEngine[] engines, byte[] image, long caseSeed) {
+        Outcome[] outcomes = new Outcome[engines.length];
+        for(int i=0; i < engines.length; ++i) {
+            outcomes[i] = execute(engines[i], image, caseSeed);
+        }
+        return outcomes;
+    }
+
+    private Outcome execute(ExecutionEngine engine, byte[] image, long caseSeed) {
+        Outcome outcome = new Outcome();
+        outcome.kind = "ok";
+        outcome.message = "";
+        VirtualMachineState state = new VirtualMachineState(image, engine);
+        state.setRandomSeed(caseSeed);
+        Random input = new Random(caseSeed);
+        long executed = 0;
+        try {
+            for(; executed < instructionLimit; ++executed) {
+                if(executed % INSTRUCTIONS_PER_FRAME == 0) {
+                    if(executed > 0) {
+                        state.timerInterrupt();
+                    }
+                    state.setKeypad(input.nextInt() & input.nextInt() & input.nextInt() & 0xffff);
+                }
+                state.executeInstruction();
+                if(state.getCallStackDepth() > VirtualMachineState.STACK_LIMIT) {
+                    outcome.kind = "stack fault";
+                    outcome.message = "call stack deeper than " + VirtualMachineState.STACK_LIMIT;
+                    break;
+                }
+            }
+        } catch (VirtualMachineState.VMException error) {
+            outcome.kind = "invalid";
+            outcome.message = error.reason;
+        } catch (RuntimeException | StackOverflowError error) {
+            outcome.kind = "crash";
+            StackTraceElement[] trace = error.getStackTrace();
+            // location is not part of the signature, hot exceptions may lose their stack trace
+            outcome.message = error.getClass().getSimpleName();
+            outcome.location = trace.length > 0 ? " in " + trace[0].getClassName() + "." + trace[0].getMethodName() : "";
+        }
+        outcome.instructions = executed;
+        StateHash hash = new StateHash();
+        hash.add(StateHash.registers(state));
+        hash.add(StateHash.memory(state));
+        hash.add(StateHash.framebuffer(state));
+        outcome.hash = hash.get();
+        return outcome;
+    }
+
+    /**
+     * get signature grouping failures with the same cause
+     * @param outcomes outcomes of all engines
+     * @return signature or null when there is no failure
+     */
+    private String signature(Outcome[] outcomes) {
+        for(int i=1; i < outcomes.length; ++i) {
+            if(!outcomes[i].sameAs(outcomes[0])) {
+                return "divergence " + engineNames[0] + " " + outcomes[0].kind + " / " + engineNames[i] + " " + outcomes[i].kind
+                        + (outcomes[0].kind.equals(outcomes[i].kind) ? "" : " " + outcomes[0].message + " / " + outcomes[i].message);
+            }
+        }
+        for(Outcome outcome : outcomes) {
+            if(outcome.isCrash()) {
+                return outcome.kind + " " + outcome.message;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * shrink image while it still fails with the same signature (removes chunks of decreasing size,
+     * then replaces bytes with zero)
+     */
+    private byte[] minimise(ExecutionEngine[] engines, byte[] image, long caseSeed, String signature) {
+        byte[] current = image;
+        for(int chunk = Math.max(2, current.length / 2); chunk >= 1; chunk /= 2) {
+            for(int start = 0; start < current.length; ) {
+                int end = Math.min(current.length, start + chunk);
+                byte[] candidate = new byte[current.length - (end - start)];
+                System.arraycopy(current, 0, candidate, 0, start);
+                System.arraycopy(current, end, candidate, start, current.length - end);
+                if(signature.equals(signature(execute(engines, candidate, caseSeed)))) {
+                    current = candidate;
+                } else {
+                    start = end;
+                }
+            }
+        }
+        for(int i=0; i < current.length; ++i) {
+            if(current[i] != 0) {
+                byte[] candidate = current.clone();
+                candidate[i] = 0;
+                if(signature.equals(signature(execute(engines, candidate, caseSeed)))) {
+                    current = candidate;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * run reproducer on all engines and print outcomes
+     * @param image ROM image
+     * @param caseSeed case seed from report
+     */
+    public void replay(byte[] image, long caseSeed) {
+        ExecutionEngine[] engines = createEngines();
+        Outcome[] outcomes = execute(engines, image, caseSeed);
+        for(int i=0; i < outcomes.length; ++i) {
+            System.out.println(engineNames[i] + ": " + outcomes[i]);
+        }
+        String signature = signature(outcomes);
+        System.out.println(signature == null ? "no failure" : signature);
+    }
+
+    private void record(String signature, byte[] image, long caseSeed, Outcome[] outcomes) {
+        String name = String.format("failure-%08x", signature.hashCode());
+        try {
+            Files.createDirectories(outputDir);
+            Files.write(outputDir.resolve(name + ".ch8"), image);
+            StringBuilder report = new StringBuilder();
+            report.append("# ").append(signature).append("\n");
+            report.append(String.format("# case seed %d (random seed of the machine and of keypad input), %d instructions per frame\n", caseSeed, INSTRUCTIONS_PER_FRAME));
+            report.append(String.format("# replay with: Fuzzer --replay %s.ch8 --seed %d --instructions %d --engines %s\n",
+                    name, caseSeed, instructionLimit, String.join(",", engineNames)));
+            for(int i=0; i < outcomes.length; ++i) {
+                report.append("# ").append(engineNames[i]).append(": ").append(outcomes[i]).append("\n");
+            }
+            report.append(disassembler.disassemble(image));
+            Files.write(outputDir.resolve(name + ".txt"), report.toString().getBytes());
+            System.out.println(String.format("new failure %s: %s (%d bytes)", name, signature, image.length));
+        } catch (IOException error) {
+            System.err.println("Cannot write reproducer: " + error.getMessage());
+        }
+    }
+
+    private byte[] generate(Random random) {
+        int instructionCount = 1 + random.nextInt(256);
+        byte[] image = new byte[instructionCount * 2];
+        for(int i=0; i < instructionCount; ++i) {
+            setOpcode(image, i * 2, randomOpcode(random, image.length));
+        }
+        return image;
+    }
+
+    private byte[] mutate(Random random) {
+        byte[] base = corpus.get(random.nextInt(corpus.size()));
+        byte[] image = base.clone();
+        int mutations = 1 + random.nextInt(8);
+        for(int m=0; m < mutations && image.length > 1; ++m) {
+            int position = random.nextInt(image.length - 1);
+            switch(random.nextInt(4)) {
+                case 0:
+                    image[position] ^= 1 << random.nextInt(8);
+                    break;
+                case 1:
+                    image[position] = (byte)random.nextInt(0x100);
+                    break;
+                case 2:
+                    setOpcode(image, position & ~1, randomOpcode(random, image.length));
+                    break;
+                default:
+                    image = Arrays.copyOf(image, Math.max(2, position));
+            }
+        }
+        return image;
+    }
+
+    private int randomOpcode(Random random, int imageLength) {
+        int opcode;
+        do {
+            opcode = random.nextInt(0x10000);
+        } while(decodeTable[opcode] < 0 && random.nextInt(4) != 0);
+        int kind = opcode >> 12;
+        if((kind == 0x1 || kind == 0x2 || kind == 0xA) && random.nextBoolean()) {
+            opcode = (opcode & 0xf000) | ((0x200 + random.nextInt(imageLength)) & 0xffe);
+        }
+        return opcode;
+    }
+
+    private static void setOpcode(byte[] image, int offset, int opcode) {
+        image[offset] = (byte)(opcode >> 8);
+        image[offset + 1] = (byte)opcode;
+    }
+
+    /**
+     * command line entry
+     * @param argv options
+     * @throws Exception on error
+     */
+    public static void main(String[] argv) throws Exception {
+        int workers = Runtime.getRuntime().availableProcessors();
+        long seconds = 60;
+        long seed = System.nanoTime();
+        int limit = 10_000;
+        String[] engines = ExecutionEngine.NAMES;
+        Path output = Paths.get("build", "fuzz");
+        Path corpusDir = Paths.get("roms");
+        Path replay = null;
+        try {
+            for(int i=0; i < argv.length; ++i) {
+                switch(argv[i]) {
+                    case "--workers": workers = Integer.parseInt(argv[++i]); break;
+                    case "--seconds": seconds = Long.parseLong(argv[++i]); break;
+                    case "--seed": seed = Long.parseLong(argv[++i]); break;
+                    case "--instructions": limit = Integer.parseInt(argv[++i]); break;
+                    case "--engines": engines = argv[++i].split(","); break;
+                    case "--out": output = Paths.get(argv[++i]); break;
+                    case "--corpus": corpusDir = Paths.get(argv[++i]); break;
+                    case "--replay": replay = Paths.get(argv[++i]); break;
+                    default: throw new IllegalArgumentException("Unknown argument " + argv[i]);
+                }
+            }
+            for(String engine : engines) {
+                ExecutionEngine.byName(engine, null);
+            }
+        } catch (IllegalArgumentException | IndexOutOfBoundsException error) {
+            System.err.println(error.getMessage());
+            System.err.println("usage: Fuzzer [--workers N] [--seconds N (0 = forever)] [--seed N] [--instructions N] [--engines decode,cached,switch] [--out dir] [--corpus dir]");
+            System.err.println("       Fuzzer --replay failure.ch8 --seed <case seed> [--instructions N] [--engines ...]");
+            System.exit(2);
+        }
+        List<byte[]> corpus = new ArrayList<>();
+        if(replay != null) {
+            new Fuzzer(engines, limit, output, corpus).replay(Files.readAllBytes(replay), seed);
+            return;
+        }
+        if(Files.isDirectory(corpusDir)) {
+            try(Stream<Path> files = Files.list(corpusDir)) {
+                for(Path path : files.filter(Files::isRegularFile).collect(Collectors.toList())) {
+                    byte[] rom = Files.readAllBytes(path);
+                    if(rom.length > 1 && rom.length <= VirtualMachineState.MAX_PROGRAM_SIZE) {
+                        corpus.add(rom);
+                    }
+                }
+            }
+        }
+        System.out.println(String.format("fuzzing with %d workers, seed %d, engines %s, %d ROMs in corpus",
+                workers, seed, String.join(",", engines), corpus.size()));
+        new Fuzzer(engines, limit, output, corpus).run(workers, seconds, seed);
+    }
+}
@@ -0,0 +1,249 @@
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * regression suite running every ROM headless and comparing frames at fixed checkpoints with stored goldens,
+ * missing goldens are generated, divergent frames are written as PNG diff
+ * (white - pixel set in both, red - only in golden, green - only in current run)
+ */
+public class GoldenSuite {
+    public static final int[] CHECKPOINTS = { 60, 600, 1800 };
+    public static final int SEED = 0;
+    private static final int DIFF_SCALE = 8;
+
+    /**
+     * frame at checkpoint
+     */
+    private static class Frame {
+        int frame;
+        long[] rows;
+
+        Frame(int frame, long[] rows) {
+            this.frame = frame;
+            this.rows = rows;
+        }
+
+        long hash() {
+            StateHash hash = new StateHash();
+            for(long row : rows) {
+                hash.add(row);
+            }
+            return hash.get();
+        }
+    }
+
+    /**
+     * outcome of checking one ROM
+     */
+    private static class Outcome {
+        String rom;
+        boolean failed = false;
+        ArrayList<String> messages = new ArrayList<>();
+
+        Outcome(String rom) {
+            this.rom = rom;
+        }
+
+        void fail(String message) {
+            failed = true;
+            messages.add(message);
+        }
+    }
+
+    private Path romsDir;
+    private Path goldensDir;
+    private Path diffDir;
+    private boolean update;
+    private String engine;
+    private RomLoader loader;
+    private Disassembler disassembler;
+
+    /**
+     * create suite
+     * @param romsDir directory with ROMs
+     * @param goldensDir directory with goldens (&lt;rom&gt;.golden) and recorded inputs (&lt;rom&gt;.input)
+     * @param diffDir directory for PNG diffs of divergent frames
+     * @param update true to regenerate all goldens
+     * @param engine name of execution engine
+     * @throws Exception when instruction factories cannot be set up
+     */
+    public GoldenSuite(Path romsDir, Path goldensDir, Path diffDir, boolean update, String engine) throws Exception {
+        this.romsDir = romsDir;
+        this.goldensDir = goldensDir;
+        this.diffDir = diffDir;
+        this.update = update;
+        this.engine = engine;
+        loader = new RomLoader();
+        disassembler = new Disassembler(InstructionFactory.factoriesByIndex(), InstructionFactory.decodeTable());
+    }
+
+    /**
+     * run suite with one virtual machine per core
+     * @return true when all ROMs match their goldens
+     * @throws Exception on filesystem error or interruption
+     */
+    public boolean run() throws Exception {
+        List<Path> roms;
+        try(Stream<Path> files = Files.list(romsDir)) {
+            roms = files.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        }
+        Files.createDirectories(goldensDir);
+        ExecutorService pool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        ArrayList<Future<Outcome>> outcomes = new ArrayList<>();
+        for(Path rom : roms) {
+            outcomes.add(pool.submit(() -> check(rom)));
+        }
+        pool.shutdown();
+        boolean passed = true;
+        for(Future<Outcome> future : outcomes) {
+            Outcome outcome = future.get();
+            System.out.println(String.format("%-12s %s", outcome.rom, outcome.failed ? "FAILED" : "ok"));
+            outcome.messages.forEach(message -> System.out.println("    " + message));
+            passed &= !outcome.failed;
+        }
+        System.out.println(String.format("%d ROMs, %s", roms.size(), passed ? "all passed" : "FAILURES"));
+        return passed;
+    }
+
+    private Outcome check(Path rom) {
+        String name = rom.getFileName().toString();
+        Outcome outcome = new Outcome(name);
+        try {
+            Path inputPath = goldensDir.resolve(name + ".input");
+            InputScript input = Files.exists(inputPath) ? InputScript.load(inputPath) : new InputScript();
+            List<Frame> frames = record(loader.load(rom), input);
+            Path goldenPath = goldensDir.resolve(name + ".golden");
+            if(update || !Files.exists(goldenPath)) {
+                writeGolden(goldenPath, name, frames);
+                outcome.messages.add("golden generated");
+                return outcome;
+            }
+            List<Frame> goldens = readGolden(goldenPath);
+            for(Frame golden : goldens) {
+                Frame actual = frames.stream().filter(f -> f.frame == golden.frame).findFirst().orElse(null);
+                if(actual == null) {
+                    outcome.fail("frame " + golden.frame + " is not a checkpoint anymore, regenerate goldens");
+                } else if(!Arrays.equals(actual.rows, golden.rows)) {
+                    Path diff = diffDir.resolve(name + "-" + golden.frame + ".png");
+                    writeDiff(diff, golden, actual);
+                    outcome.fail(String.format("frame %d diverged: golden %016x, actual %016x, diff %s",
+                            golden.frame, golden.hash(), actual.hash(), diff));
+                }
+            }
+        } catch (VirtualMachineState.VMException error) {
+            outcome.fail(error.reason);
+        } catch (Assembler.AssemblerException error) {
+            outcome.fail("line " + (error.getLineNumber() + 1) + ": " + error.getMsg());
+        } catch (IOException | RuntimeException error) {
+            outcome.fail(error.toString());
+        }
+        return outcome;
+    }
+
+    private List<Frame> record(byte[] rom, InputScript input) throws VirtualMachineState.VMException {
+        VirtualMachineState state = new VirtualMachineState(rom, ExecutionEngine.byName(engine, disassembler));
+        state.setRandomSeed(SEED);
+        ArrayList<Frame> frames = new ArrayList<>();
+        int frame = 0;
+        for(int checkpoint : CHECKPOINTS) {
+            for(; frame < checkpoint; ++frame) {
+                state.setKeypad(input.getKeypad(frame));
+                state.runFrame(HeadlessRunner.DEFAULT_INSTRUCTIONS_PER_FRAME);
+            }
+            frames.add(new Frame(checkpoint, state.getFramebuffer().clone()));
+        }
+        return frames;
+    }
+
+    private static void writeGolden(Path path, String rom, List<Frame> frames) throws IOException {
+        ArrayList<String> lines = new ArrayList<>();
+        lines.add("# golden frames of " + rom + " (" + HeadlessRunner.DEFAULT_INSTRUCTIONS_PER_FRAME
+                + " instructions per frame, seed " + SEED + "), generated by GoldenSuite");
+        for(Frame frame : frames) {
+            lines.add(String.format("frame %d %016x", frame.frame, frame.hash()));
+            for(long row : frame.rows) {
+                lines.add(String.format("%016x", row));
+            }
+        }
+        Files.write(path, lines);
+    }
+
+    private static List<Frame> readGolden(Path path) throws IOException {
+        ArrayList<Frame> frames = new ArrayList<>();
+        List<String> lines = Files.readAllLines(path);
+        for(int i=0; i < lines.size(); ++i) {
+            String line = lines.get(i).trim();
+            if(line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] header = line.split("\\s+");
+            if(header.length < 2 || !header[0].equals("frame") || i + VirtualMachineState.SCREEN_HEIGHT >= lines.size()) {
+                throw new IOException(path + ":" + (i + 1) + ": invalid golden");
+            }
+            long[] rows = new long[VirtualMachineState.SCREEN_HEIGHT];
+            for(int y=0; y < rows.length; ++y) {
+                rows[y] = Long.parseUnsignedLong(lines.get(++i).trim(), 16);
+            }
+            frames.add(new Frame(Integer.parseInt(header[1]), rows));
+        }
+        return frames;
+    }
+
+    private static void writeDiff(Path path, Frame golden, Frame actual) throws IOException {
+        Files.createDirectories(path.getParent());
+        BufferedImage image = new BufferedImage(VirtualMachineState.SCREEN_WIDTH * DIFF_SCALE,
+                VirtualMachineState.SCREEN_HEIGHT * DIFF_SCALE, BufferedImage.TYPE_INT_RGB);
+        for(int y=0; y < VirtualMachineState.SCREEN_HEIGHT; ++y) {
+            for(int x=0; x < VirtualMachineState.SCREEN_WIDTH; ++x) {
+                boolean expected = (golden.rows[y] >>> x & 1) != 0;
+                boolean current = (actual.rows[y] >>> x & 1) != 0;
+                int color = expected && current ? 0xffffff : expected ? 0xff0000 : current ? 0x00ff00 : 0;
+                for(int dy=0; dy < DIFF_SCALE; ++dy) {
+                    for(int dx=0; dx < DIFF_SCALE; ++dx) {
+                        image.setRGB(x * DIFF_SCALE + dx, y * DIFF_SCALE + dy, color);
+                    }
+                }
+            }
+        }
+        ImageIO.write(image, "png", path.toFile());
+    }
+
+    /**
+     * command line entry, exits with 1 when any ROM diverged
+     * @param argv [--update] [--engine name] [roms directory] [goldens directory] [diff directory]
+     * @throws Exception on filesystem error
+     */
+    public static void main(String[] argv) throws Exception {
+        boolean update = false;
+        String engine = "decode";
+        ArrayList<String> paths = new ArrayList<>();
+        for(int i=0; i < argv.length; ++i) {
+            if(argv[i].equals("--update")) {
+                update = true;
+            } else if(argv[i].equals("--engine") && i + 1 < argv.length) {
+                engine = argv[++i];
+            } else {
+                paths.add(argv[i]);
+            }
+        }
+        Path roms = Paths.get(paths.size() > 0 ? paths.get(0) : "roms");
+        Path goldens = paths.size() > 1 ? Paths.get(paths.get(1)) : roms.resolve("goldens");
+        Path diffs = Paths.get(paths.size() > 2 ? paths.get(2) : "build" + File.separator + "golden-diffs");
+        if(!new GoldenSuite(roms, goldens, diffs, update, engine).run()) {
+            System.exit(1);
+        }
+    }
+}
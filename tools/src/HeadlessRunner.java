@@ -0,0 +1,189 @@
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * runs ROM without ui for fixed number of frames as fast as possible and prints hashes of the final state,
+ * the input can be recorded to InputMovie and movies can be replayed and checked against their final state
+ */
+public class HeadlessRunner {
+    public static final int DEFAULT_FRAMES = 600;
+    public static final int DEFAULT_INSTRUCTIONS_PER_FRAME = 10;
+
+    /**
+     * result of a run
+     */
+    public static class Result {
+        VirtualMachineState state;
+        long instructions;
+        long nanos;
+
+        /**
+         * get machine after the run
+         * @return virtual machine
+         */
+        public VirtualMachineState getState() {
+            return state;
+        }
+
+        /**
+         * get number of executed instructions, skipped idle loops and frames ended early by GetKey are not counted
+         * @return executed instructions
+         */
+        public long getInstructions() {
+            return instructions;
+        }
+
+        /**
+         * get instructions executed per second of wall time
+         * @return instructions per second
+         */
+        public double getInstructionsPerSecond() {
+            return nanos == 0 ? 0 : instructions * 1e9 / nanos;
+        }
+    }
+
+    /**
+     * run ROM
+     * @param rom bytecode
+     * @param engine engine executing instructions
+     * @param frames number of frames to emulate
+     * @param instructionsPerFrame number of instructions per frame (timers tick once per frame)
+     * @param input keypad input
+     * @param seed seed of random number generator
+     * @return state after the run
+     * @throws VirtualMachineState.VMException thrown when ROM executes invalid instruction
+     */
+    public static Result run(byte[] rom, ExecutionEngine engine, int frames, int instructionsPerFrame, InputScript input, long seed) throws VirtualMachineState.VMException {
+        Result result = new Result();
+        result.state = new VirtualMachineState(rom, engine);
+        result.state.setRandomSeed(seed);
+        long start = System.nanoTime();
+        for(int frame=0; frame < frames; ++frame) {
+            result.state.setKeypad(input.getKeypad(frame));
+            result.state.runFrame(instructionsPerFrame);
+        }
+        result.nanos = System.nanoTime() - start;
+        result.instructions = result.state.getExecutedInstructions();
+        return result;
+    }
+
+    /**
+     * replay movie
+     * @param rom bytecode
+     * @param engine engine executing instructions
+     * @param movie recorded input, seed and instructions per frame
+     * @return state after the run
+     * @throws IllegalArgumentException thrown when movie was recorded on another ROM
+     * @throws VirtualMachineState.VMException thrown when ROM executes invalid instruction
+     */
+    public static Result replay(byte[] rom, ExecutionEngine engine, InputMovie movie) throws VirtualMachineState.VMException {
+        Result result = new Result();
+        long start = System.nanoTime();
+        result.state = movie.replay(rom, engine);
+        result.nanos = System.nanoTime() - start;
+        result.instructions = result.state.getExecutedInstructions();
+        return result;
+    }
+
+    /**
+     * record input of script to movie
+     * @param rom bytecode
+     * @param result finished run
+     * @param frames number of emulated frames
+     * @param instructionsPerFrame instructions per frame
+     * @param input keypad input
+     * @param seed seed of random number generator
+     * @return movie reproducing the run
+     */
+    public static InputMovie record(byte[] rom, Result result, int frames, int instructionsPerFrame, InputScript input, long seed) {
+        InputMovie movie = new InputMovie(rom, seed, instructionsPerFrame);
+        for(int frame=0; frame < frames; ++frame) {
+            movie.record(input.getKeypad(frame));
+        }
+        movie.finish(result.getState());
+        return movie;
+    }
+
+    /**
+     * command line entry
+     * @param argv ROM path and options
+     * @throws Exception when instruction factories cannot be set up
+     */
+    public static void main(String[] argv) throws Exception {
+        String rom = null;
+        int frames = DEFAULT_FRAMES;
+        int instructionsPerFrame = DEFAULT_INSTRUCTIONS_PER_FRAME;
+        long seed = 0;
+        String engine = "decode";
+        InputScript input = new InputScript();
+        String recordPath = null;
+        InputMovie movie = null;
+        try {
+            for(int i=0; i < argv.length; ++i) {
+                switch(argv[i]) {
+                    case "--frames": frames = Integer.parseInt(argv[++i]); break;
+                    case "--ipf": instructionsPerFrame = Integer.parseInt(argv[++i]); break;
+                    case "--seed": seed = Long.parseLong(argv[++i]); break;
+                    case "--engine": engine = argv[++i]; break;
+                    case "--keys": input = new InputScript(argv[++i]); break;
+                    case "--input": input = InputScript.load(Paths.get(argv[++i])); break;
+                    case "--record": recordPath = argv[++i]; break;
+                    case "--replay": movie = InputMovie.load(Files.readAllBytes(Paths.get(argv[++i]))); break;
+                    default:
+                        if(argv[i].startsWith("--") || rom != null) {
+                            throw new IllegalArgumentException("Unknown argument " + argv[i]);
+                        }
+                        rom = argv[i];
+                }
+            }
+            if(rom == null) {
+                throw new IllegalArgumentException("Missing ROM");
+            }
+            ExecutionEngine.byName(engine, null);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException error) {
+            System.err.println(error.getMessage());
+            System.err.println("usage: HeadlessRunner <rom|file.asm> [--frames N] [--ipf N] [--seed N] [--engine decode|cached|switch] [--keys frame:keys,...] [--input script] [--record movie] [--replay movie]");
+            System.exit(2);
+        }
+
+        byte[] byteCode;
+        try {
+            byteCode = new RomLoader().load(Paths.get(rom));
+        } catch (Assembler.AssemblerException error) {
+            System.err.println(rom + ":" + (error.getLineNumber() + 1) + ": " + error.getMsg());
+            System.exit(1);
+            return;
+        }
+        Disassembler disassembler = new Disassembler(InstructionFactory.factoriesByIndex(), InstructionFactory.decodeTable());
+        try {
+            Result result;
+            if(movie != null) {
+                result = replay(byteCode, ExecutionEngine.byName(engine, disassembler), movie);
+                frames = movie.getFrames();
+            } else {
+                result = run(byteCode, ExecutionEngine.byName(engine, disassembler), frames, instructionsPerFrame, input, seed);
+            }
+            VirtualMachineState state = result.getState();
+            System.out.println(String.format("framebuffer %016x", StateHash.framebuffer(state)));
+            System.out.println(String.format("registers   %016x", StateHash.registers(state)));
+            System.out.println(String.format("memory      %016x", StateHash.memory(state)));
+            System.out.println(String.format("%d frames, %d instructions, %.0f instructions/s",
+                    frames, result.getInstructions(), result.getInstructionsPerSecond()));
+            if(recordPath != null) {
+                InputMovie recorded = record(byteCode, result, frames, instructionsPerFrame, input, seed);
+                Files.write(Paths.get(recordPath), recorded.save());
+                System.out.println(String.format("recorded %d frames in %d keypad runs", recorded.getFrames(), recorded.getRuns()));
+            }
+            if(movie != null && !movie.matches(state)) {
+                System.err.println("replay differs from recorded final state");
+                System.exit(1);
+            }
+        } catch (VirtualMachineState.VMException error) {
+            System.err.println(error.reason);
+            System.exit(1);
+        } catch (IllegalArgumentException error) {
+            System.err.println(error.getMessage());
+            System.exit(1);
+        }
+    }
+}
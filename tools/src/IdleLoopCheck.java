@@ -0,0 +1,117 @@
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * exactness check of idle loop skipping: every ROM is run with random input with skipping enabled and disabled,
+ * after every frame the save states of both machines are compared, prints fraction of skipped instructions and
+ * speedup for every instructions per frame
+ */
+public class IdleLoopCheck {
+    /**
+     * command line entry, exits with 1 when skipping changes any frame
+     * @param argv ROMs (or directories with ROMs) and options
+     * @throws Exception when ROM cannot be loaded
+     */
+    public static void main(String[] argv) throws Exception {
+        ArrayList<Path> roms = new ArrayList<>();
+        int frames = 1200;
+        int[] instructionsPerFrame = { 10, 100, 1000 };
+        try {
+            for(int i=0; i < argv.length; ++i) {
+                switch(argv[i]) {
+                    case "--frames": frames = Integer.parseInt(argv[++i]); break;
+                    case "--ipf": instructionsPerFrame = Arrays.stream(argv[++i].split(",")).mapToInt(Integer::parseInt).toArray(); break;
+                    default:
+                        if(argv[i].startsWith("--")) {
+                            throw new IllegalArgumentException("Unknown argument " + argv[i]);
+                        }
+                        RomLoader.addRoms(argv[i], roms);
+                }
+            }
+            if(roms.isEmpty()) {
+                throw new IllegalArgumentException("Missing ROM");
+            }
+        } catch (IllegalArgumentException | IndexOutOfBoundsException error) {
+            System.err.println(error.getMessage());
+            System.err.println("usage: IdleLoopCheck <rom|file.asm|directory>... [--frames N] [--ipf N,N...]");
+            System.exit(2);
+        }
+
+        RomLoader loader = new RomLoader();
+        boolean failed = false;
+        System.out.println(String.format("%-12s %6s %10s %10s %8s", "ROM", "ipf", "skipped", "speedup", "result"));
+        for(Path rom : roms) {
+            byte[] program = loader.load(rom);
+            for(int ipf : instructionsPerFrame) {
+                String mismatch = compare(program, frames, ipf);
+                failed |= mismatch != null;
+                // warm up both paths before measuring
+                measure(program, frames, ipf, false);
+                measure(program, frames, ipf, true);
+                long plain = measure(program, frames, ipf, false);
+                VirtualMachineState skipping = new VirtualMachineState(program, new SwitchEngine());
+                long fast = measure(skipping, frames, ipf);
+                System.out.println(String.format("%-12s %6d %9.1f%% %9.2fx %8s", rom.getFileName(), ipf,
+                        skipping.getSkippedInstructions() * 100.0 / ((long)frames * ipf),
+                        fast == 0 ? 1.0 : (double)plain / fast, mismatch == null ? "same" : mismatch));
+            }
+        }
+        if(failed) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * run ROM in lockstep with and without skipping
+     * @return description of first differing frame or null when all frames match
+     */
+    private static String compare(byte[] program, int frames, int instructionsPerFrame) {
+        VirtualMachineState plain = new VirtualMachineState(program, new SwitchEngine());
+        VirtualMachineState skipping = new VirtualMachineState(program, new SwitchEngine());
+        plain.setIdleLoopSkipping(false);
+        InputScript.RandomInput input = new InputScript.RandomInput(0);
+        for(int frame=0; frame < frames; ++frame) {
+            int keypad = input.getKeypad(frame);
+            plain.setKeypad(keypad);
+            skipping.setKeypad(keypad);
+            String plainFault = runFrame(plain, instructionsPerFrame);
+            String skippingFault = runFrame(skipping, instructionsPerFrame);
+            if(plainFault != null || skippingFault != null) {
+                return plainFault != null && plainFault.equals(skippingFault) ? null : "frame " + frame + " fault";
+            }
+            if(!Arrays.equals(SaveState.save(plain), SaveState.save(skipping))) {
+                return "frame " + frame;
+            }
+        }
+        return null;
+    }
+
+    private static String runFrame(VirtualMachineState state, int instructionsPerFrame) {
+        try {
+            state.runFrame(instructionsPerFrame);
+            return null;
+        } catch (VirtualMachineState.VMException | RuntimeException error) {
+            // faulted machine cannot be continued, both machines have to fault the same way
+            return String.valueOf(error.getMessage());
+        }
+    }
+
+    private static long measure(byte[] program, int frames, int instructionsPerFrame, boolean skip) {
+        VirtualMachineState state = new VirtualMachineState(program, new SwitchEngine());
+        state.setIdleLoopSkipping(skip);
+        return measure(state, frames, instructionsPerFrame);
+    }
+
+    private static long measure(VirtualMachineState state, int frames, int instructionsPerFrame) {
+        InputScript.RandomInput input = new InputScript.RandomInput(0);
+        long start = System.nanoTime();
+        for(int frame=0; frame < frames; ++frame) {
+            state.setKeypad(input.getKeypad(frame));
+            if(runFrame(state, instructionsPerFrame) != null) {
+                break;
+            }
+        }
+        return System.nanoTime() - start;
+    }
+}
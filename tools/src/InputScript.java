@@ -0,0 +1,123 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * scripted keypad input, entries `frame:keys` separated by commas or new lines set the pressed keys
+ * from that frame on (keys are hex digits of pressed keys, `-` releases all keys), for example `30:5,34:-,100:46`
+ */
+public class InputScript {
+    private int[] frames;
+    private int[] masks;
+
+    /**
+     * script without any input
+     */
+    public InputScript() {
+        frames = new int[0];
+        masks = new int[0];
+    }
+
+    /**
+     * parse script
+     * @param script script text, `#` starts comment till the end of line
+     * @throws IllegalArgumentException thrown on invalid entry
+     */
+    public InputScript(String script) {
+        ArrayList<int[]> entries = new ArrayList<>();
+        for(String line : script.split("\n")) {
+            int comment = line.indexOf('#');
+            if(comment >= 0) {
+                line = line.substring(0, comment);
+            }
+            for(String entry : line.split(",")) {
+                entry = entry.trim();
+                if(entry.isEmpty()) {
+                    continue;
+                }
+                String[] parts = entry.split(":");
+                if(parts.length != 2) {
+                    throw new IllegalArgumentException("Invalid input entry " + entry);
+                }
+                entries.add(new int[]{ Integer.parseInt(parts[0].trim()), parseKeys(parts[1].trim()) });
+            }
+        }
+        entries.sort((a, b) -> a[0] - b[0]);
+        frames = new int[entries.size()];
+        masks = new int[entries.size()];
+        for(int i=0; i < entries.size(); ++i) {
+            frames[i] = entries.get(i)[0];
+            masks[i] = entries.get(i)[1];
+        }
+    }
+
+    /**
+     * load script from file
+     * @param path path to script
+     * @return parsed script
+     * @throws IOException thrown on filesystem error
+     */
+    public static InputScript load(Path path) throws IOException {
+        return new InputScript(new String(Files.readAllBytes(path)));
+    }
+
+    /**
+     * get keypad state during frame
+     * @param frame frame number starting from 0
+     * @return bitmask of pressed keys
+     */
+    public int getKeypad(int frame) {
+        int mask = 0;
+        for(int i=0; i < frames.length && frames[i] <= frame; ++i) {
+            mask = masks[i];
+        }
+        return mask;
+    }
+
+    /**
+     * random keypad input used by checks and reports: every INPUT_PERIOD frames one random key is pressed
+     * (one time in three) or all keys are released, the same seed gives the same input
+     */
+    public static class RandomInput {
+        public static final int INPUT_PERIOD = 20;
+        private final Random random;
+        private int keypad = 0;
+
+        /**
+         * create input
+         * @param seed random seed
+         */
+        public RandomInput(long seed) {
+            random = new Random(seed);
+        }
+
+        /**
+         * get keypad state during frame, has to be called for every frame in order starting from 0
+         * @param frame frame number
+         * @return bitmask of pressed keys
+         */
+        public int getKeypad(int frame) {
+            if(frame % INPUT_PERIOD == 0) {
+                keypad = random.nextInt(3) == 0 ? 1 << random.nextInt(16) : 0;
+            }
+            return keypad;
+        }
+    }
+
+    private static int parseKeys(String keys) {
+        if(keys.equals("-")) {
+            return 0;
+        }
+        int mask = 0;
+        for(char c : keys.toCharArray()) {
+            int key = Character.digit(c, 16);
+            if(key < 0) {
+                throw new IllegalArgumentException("Invalid key " + c);
+            }
+            mask |= 1 << key;
+        }
+        return mask;
+    }
+}
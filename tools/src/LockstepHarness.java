@@ -0,0 +1,209 @@
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Optional;
+
+/**
+ * runs two execution engines in lockstep on the same ROM and input and compares whole virtual machine state
+ * after every instruction (or frame), reports the first divergence
+ */
+public class LockstepHarness {
+    private static final int MAX_REPORTED_DIFFERENCES = 16;
+
+    /**
+     * first difference found between two machines
+     */
+    public static class Divergence {
+        long frame;
+        long instruction;
+        int address;
+        short opcode;
+        ArrayList<String> differences = new ArrayList<>();
+
+        /**
+         * get human readable report
+         * @param disassembler disassembler used to print diverged instruction
+         * @return report
+         */
+        public String report(Disassembler disassembler) {
+            StringBuilder builder = new StringBuilder();
+            String instr = disassembler.decodeInstruction(opcode).map(Instruction::disassemble).orElse("invalid\n");
+            builder.append(String.format("diverged in frame %d after instruction %d at %03X: %04X %s",
+                    frame, instruction, address, opcode & 0xffff, instr));
+            differences.forEach(difference -> builder.append("    ").append(difference).append("\n"));
+            return builder.toString();
+        }
+    }
+
+    private ExecutionEngine first;
+    private ExecutionEngine second;
+    private boolean everyInstruction;
+
+    /**
+     * create harness
+     * @param first reference engine
+     * @param second engine under test
+     * @param everyInstruction compare after every instruction, otherwise only after every frame
+     */
+    public LockstepHarness(ExecutionEngine first, ExecutionEngine second, boolean everyInstruction) {
+        this.first = first;
+        this.second = second;
+        this.everyInstruction = everyInstruction;
+    }
+
+    /**
+     * run both engines
+     * @param rom bytecode
+     * @param frames number of frames
+     * @param instructionsPerFrame instructions per frame
+     * @param input keypad input
+     * @param seed seed of random number generator
+     * @return first divergence or empty when both machines stayed the same
+     */
+    public Optional<Divergence> run(byte[] rom, int frames, int instructionsPerFrame, InputScript input, long seed) {
+        VirtualMachineState a = new VirtualMachineState(rom, first);
+        VirtualMachineState b = new VirtualMachineState(rom, second);
+        a.setRandomSeed(seed);
+        b.setRandomSeed(seed);
+        long instruction = 0;
+        for(int frame=0; frame < frames; ++frame) {
+            a.setKeypad(input.getKeypad(frame));
+            b.setKeypad(input.getKeypad(frame));
+            for(int i=0; i < instructionsPerFrame; ++i) {
+                int address = a.getIp();
+                short opcode = address + 1 < VirtualMachineState.MEMORY_SIZE ? a.memoryGetShort(address) : 0;
+                String errorA = step(a);
+                String errorB = step(b);
+                ++instruction;
+                ArrayList<String> differences = new ArrayList<>();
+                if(!String.valueOf(errorA).equals(String.valueOf(errorB))) {
+                    differences.add(first.getName() + ": " + (errorA == null ? "ok" : errorA) + ", "
+                            + second.getName() + ": " + (errorB == null ? "ok" : errorB));
+                }
+                if(everyInstruction || i + 1 == instructionsPerFrame || !differences.isEmpty()) {
+                    compare(a, b, differences);
+                }
+                if(!differences.isEmpty()) {
+                    Divergence divergence = new Divergence();
+                    divergence.frame = frame;
+                    divergence.instruction = instruction;
+                    divergence.address = address;
+                    divergence.opcode = opcode;
+                    divergence.differences = differences;
+                    return Optional.of(divergence);
+                }
+                if(errorA != null) {
+                    return Optional.empty();
+                }
+            }
+            a.timerInterrupt();
+            b.timerInterrupt();
+        }
+        return Optional.empty();
+    }
+
+    private static String step(VirtualMachineState state) {
+        try {
+            state.executeInstruction();
+            return null;
+        } catch (VirtualMachineState.VMException error) {
+            return error.reason;
+        } catch (RuntimeException error) {
+            return error.toString();
+        }
+    }
+
+    private void compare(VirtualMachineState a, VirtualMachineState b, ArrayList<String> differences) {
+        for(int i=0; i < 16; ++i) {
+            compare(differences, String.format("v%d", i), a.getReg(i), b.getReg(i));
+        }
+        compare(differences, "I", a.getRegI(), b.getRegI());
+        compare(differences, "ip", a.getIp(), b.getIp());
+        compare(differences, "delay timer", a.getDelayTimerCounter(), b.getDelayTimerCounter());
+        compare(differences, "sound timer", a.getSoundTimerCounter(), b.getSoundTimerCounter());
+        int[] stackA = a.getCallStack();
+        int[] stackB = b.getCallStack();
+        compare(differences, "stack depth", stackA.length, stackB.length);
+        for(int i=0; i < Math.min(stackA.length, stackB.length); ++i) {
+            compare(differences, "stack[" + i + "]", stackA[i], stackB[i]);
+        }
+        for(int address=0; address < VirtualMachineState.MEMORY_SIZE; ++address) {
+            if(a.memoryGetByte(address) != b.memoryGetByte(address) && differences.size() < MAX_REPORTED_DIFFERENCES) {
+                differences.add(String.format("memory[%03X]: %02X != %02X", address, a.memoryGetByte(address), b.memoryGetByte(address)));
+            }
+        }
+        long[] screenA = a.getFramebuffer();
+        long[] screenB = b.getFramebuffer();
+        for(int y=0; y < screenA.length; ++y) {
+            if(screenA[y] != screenB[y] && differences.size() < MAX_REPORTED_DIFFERENCES) {
+                differences.add(String.format("screen row %d: %016x != %016x", y, screenA[y], screenB[y]));
+            }
+        }
+    }
+
+    private static void compare(ArrayList<String> differences, String name, int a, int b) {
+        if(a != b && differences.size() < MAX_REPORTED_DIFFERENCES) {
+            differences.add(String.format("%s: %X != %X", name, a, b));
+        }
+    }
+
+    /**
+     * command line entry, exits with 1 on divergence
+     * @param argv ROMs (or directories with ROMs) and options
+     * @throws Exception when instruction factories cannot be set up or ROM cannot be loaded
+     */
+    public static void main(String[] argv) throws Exception {
+        ArrayList<Path> roms = new ArrayList<>();
+        String[] engines = { "decode", "switch" };
+        int frames = HeadlessRunner.DEFAULT_FRAMES;
+        int instructionsPerFrame = HeadlessRunner.DEFAULT_INSTRUCTIONS_PER_FRAME;
+        long seed = 0;
+        boolean everyInstruction = true;
+        InputScript input = new InputScript();
+        try {
+            for(int i=0; i < argv.length; ++i) {
+                switch(argv[i]) {
+                    case "--engines": engines = argv[++i].split(","); break;
+                    case "--frames": frames = Integer.parseInt(argv[++i]); break;
+                    case "--ipf": instructionsPerFrame = Integer.parseInt(argv[++i]); break;
+                    case "--seed": seed = Long.parseLong(argv[++i]); break;
+                    case "--keys": input = new InputScript(argv[++i]); break;
+                    case "--input": input = InputScript.load(Paths.get(argv[++i])); break;
+                    case "--per-frame": everyInstruction = false; break;
+                    default:
+                        if(argv[i].startsWith("--")) {
+                            throw new IllegalArgumentException("Unknown argument " + argv[i]);
+                        }
+                        RomLoader.addRoms(argv[i], roms);
+                }
+            }
+            if(roms.isEmpty() || engines.length != 2) {
+                throw new IllegalArgumentException("Expected ROM and two engines");
+            }
+            ExecutionEngine.byName(engines[0], null);
+            ExecutionEngine.byName(engines[1], null);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException error) {
+            System.err.println(error.getMessage());
+            System.err.println("usage: LockstepHarness <rom|file.asm|directory>... [--engines decode,switch] [--frames N] [--ipf N] [--seed N] [--per-frame] [--keys frame:keys,...] [--input script]");
+            System.exit(2);
+        }
+
+        Disassembler disassembler = new Disassembler(InstructionFactory.factoriesByIndex(), InstructionFactory.decodeTable());
+        RomLoader loader = new RomLoader();
+        boolean diverged = false;
+        for(Path rom : roms) {
+            LockstepHarness harness = new LockstepHarness(ExecutionEngine.byName(engines[0], disassembler),
+                    ExecutionEngine.byName(engines[1], disassembler), everyInstruction);
+            Optional<Divergence> divergence = harness.run(loader.load(rom), frames, instructionsPerFrame, input, seed);
+            if(divergence.isPresent()) {
+                diverged = true;
+                System.out.print(rom + ": " + divergence.get().report(disassembler));
+            } else {
+                System.out.println(rom + ": " + engines[0] + " and " + engines[1] + " agree");
+            }
+        }
+        if(diverged) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * runs many ROM sessions in VirtualMachinePool (or each on its own virtual thread with --mode threads)
+ * and reports aggregate throughput and memory use, the input of every session can be recorded to InputMovie
+ */
+public class PoolRunner {
+    /**
+     * command line entry
+     * @param argv ROMs (or directories with ROMs) and options
+     * @throws Exception on error
+     */
+    public static void main(String[] argv) throws Exception {
+        int sessions = 1000;
+        int carriers = Runtime.getRuntime().availableProcessors();
+        int framesPerSecond = 60;
+        int seconds = 10;
+        String engine = "switch";
+        String mode = "pool";
+        Path recordDir = null;
+        ArrayList<Path> roms = new ArrayList<>();
+        try {
+            for(int i=0; i < argv.length; ++i) {
+                switch(argv[i]) {
+                    case "--sessions": sessions = Integer.parseInt(argv[++i]); break;
+                    case "--carriers": carriers = Integer.parseInt(argv[++i]); break;
+                    case "--fps": framesPerSecond = Integer.parseInt(argv[++i]); break;
+                    case "--seconds": seconds = Integer.parseInt(argv[++i]); break;
+                    case "--engine": engine = argv[++i]; break;
+                    case "--mode": mode = argv[++i]; break;
+                    case "--record": recordDir = Paths.get(argv[++i]); break;
+                    default:
+                        if(argv[i].startsWith("--")) {
+                            throw new IllegalArgumentException("Unknown argument " + argv[i]);
+                        }
+                        RomLoader.addRoms(argv[i], roms);
+                }
+            }
+            if(roms.isEmpty()) {
+                throw new IllegalArgumentException("Missing ROM");
+            }
+            ExecutionEngine.byName(engine, null);
+            if(!mode.equals("pool") && !mode.equals("threads")) {
+                throw new IllegalArgumentException("Unknown mode " + mode);
+            }
+        } catch (IllegalArgumentException | IndexOutOfBoundsException error) {
+            System.err.println(error.getMessage());
+            System.err.println("usage: PoolRunner <rom|directory>... [--sessions N] [--carriers N] [--fps N (0 = uncapped)] [--seconds N] [--engine decode|cached|switch] [--mode pool|threads] [--record directory]");
+            System.exit(2);
+        }
+
+        RomLoader loader = new RomLoader();
+        List<byte[]> images = new ArrayList<>();
+        for(Path rom : roms) {
+            images.add(loader.load(rom));
+        }
+        Disassembler disassembler = new Disassembler(InstructionFactory.factoriesByIndex(), InstructionFactory.decodeTable());
+        // decode and switch engines are stateless and can be shared by all sessions
+        ExecutionEngine shared = engine.equals("cached") ? null : ExecutionEngine.byName(engine, disassembler);
+
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+        VirtualMachinePool pool = mode.equals("pool")
+                ? new VirtualMachinePool(carriers, HeadlessRunner.DEFAULT_INSTRUCTIONS_PER_FRAME, framesPerSecond) : null;
+        List<EmulatorSession> running = new ArrayList<>();
+        List<InputMovie> movies = new ArrayList<>();
+        for(int i=0; i < sessions; ++i) {
+            ExecutionEngine sessionEngine = shared != null ? shared : ExecutionEngine.byName(engine, disassembler);
+            byte[] image = images.get(i % images.size());
+            InputMovie movie = recordDir != null ? new InputMovie(image, i, HeadlessRunner.DEFAULT_INSTRUCTIONS_PER_FRAME) : null;
+            VirtualMachineState state = movie != null ? movie.createMachine(image, sessionEngine) : new VirtualMachineState(image, sessionEngine);
+            state.setRandomSeed(i);
+            movies.add(movie);
+            running.add(pool != null ? pool.add(state, movie)
+                    : new VirtualThreadSession("vm-" + i, state, HeadlessRunner.DEFAULT_INSTRUCTIONS_PER_FRAME, framesPerSecond, movie));
+        }
+        System.gc();
+        long heapAfter = runtime.totalMemory() - runtime.freeMemory();
+        System.out.println(String.format("%d sessions %s, %s, about %d bytes of heap per session",
+                sessions, pool != null ? "on " + carriers + " carriers"
+                        : VirtualThreads.isSupported() ? "on virtual threads" : "on platform threads (virtual threads need Java 21)",
+                framesPerSecond == 0 ? "uncapped" : framesPerSecond + " fps",
+                (heapAfter - heapBefore) / sessions));
+
+        long startFrames = running.stream().mapToLong(EmulatorSession::getFrames).sum();
+        long lastFrames = startFrames;
+        long lastInstructions = executedInstructions(running);
+        long startNanos = System.nanoTime();
+        long startCpu = cpuTime();
+        for(int second=1; second <= seconds; ++second) {
+            Thread.sleep(1000);
+            long currentFrames = running.stream().mapToLong(EmulatorSession::getFrames).sum();
+            long currentInstructions = executedInstructions(running);
+            long faulted = running.stream().filter(s -> s.getStatus() == EmulatorSession.Status.Faulted).count();
+            long idle = running.stream().filter(s -> s.getState().isWaitingForKey()).count();
+            System.out.println(String.format("%4ds %12d instructions/s %9d frames/s %6d faulted %6d waiting for key",
+                    second, currentInstructions - lastInstructions, currentFrames - lastFrames, faulted, idle));
+            lastFrames = currentFrames;
+            lastInstructions = currentInstructions;
+        }
+        double elapsed = (System.nanoTime() - startNanos) / 1e9;
+        double cpu = (cpuTime() - startCpu) / 1e9;
+        if(recordDir != null) {
+            Files.createDirectories(recordDir);
+            for(int i=0; i < sessions; ++i) {
+                // paused session has finished its frame, the movie ends with the machine state
+                EmulatorSession session = running.get(i);
+                session.pause();
+                InputMovie movie = movies.get(i);
+                movie.finish(session.getState());
+                Files.write(recordDir.resolve(roms.get(i % roms.size()).getFileName() + "-" + i + ".c8mv"), movie.save());
+            }
+            System.out.println(String.format("recorded %d movies to %s", sessions, recordDir));
+        }
+        if(pool != null) {
+            pool.shutdown();
+        } else {
+            for(EmulatorSession session : running) {
+                session.stop();
+            }
+        }
+        System.out.println(String.format("total %d frames, %.1f frames/s per session, %.2f CPU seconds per second",
+                lastFrames, (lastFrames - startFrames) / elapsed / sessions, cpu / elapsed));
+    }
+
+    /**
+     * sum instructions really executed by sessions, idle loops skipped and GetKey waits do not count, read while
+     * sessions run so it is only a progress figure
+     */
+    private static long executedInstructions(List<EmulatorSession> sessions) {
+        return sessions.stream().mapToLong(session -> session.getState().getExecutedInstructions()).sum();
+    }
+
+    private static long cpuTime() {
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if(os instanceof com.sun.management.OperatingSystemMXBean) {
+            return ((com.sun.management.OperatingSystemMXBean) os).getProcessCpuTime();
+        }
+        return 0;
+    }
+}
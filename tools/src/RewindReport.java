@@ -0,0 +1,95 @@
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * records every ROM into RewindBuffer with random input and reports memory needed per minute of history,
+ * then rewinds the whole history with other keys held and checks that every frame is restored exactly and the held
+ * keys are kept
+ */
+public class RewindReport {
+    // never produced by the random input, so a restored keypad is always noticed
+    private static final int HELD_KEYPAD = 0x8001;
+
+    /**
+     * command line entry, exits with 1 when rewound frame differs
+     * @param argv ROMs (or directories with ROMs) and options
+     * @throws Exception when ROM cannot be loaded
+     */
+    public static void main(String[] argv) throws Exception {
+        ArrayList<Path> roms = new ArrayList<>();
+        int frames = 3600;
+        int instructionsPerFrame = HeadlessRunner.DEFAULT_INSTRUCTIONS_PER_FRAME;
+        long budget = RewindBuffer.DEFAULT_BUDGET;
+        try {
+            for(int i=0; i < argv.length; ++i) {
+                switch(argv[i]) {
+                    case "--frames": frames = Integer.parseInt(argv[++i]); break;
+                    case "--ipf": instructionsPerFrame = Integer.parseInt(argv[++i]); break;
+                    case "--budget": budget = Long.parseLong(argv[++i]) * 1024; break;
+                    default:
+                        if(argv[i].startsWith("--")) {
+                            throw new IllegalArgumentException("Unknown argument " + argv[i]);
+                        }
+                        RomLoader.addRoms(argv[i], roms);
+                }
+            }
+            if(roms.isEmpty()) {
+                throw new IllegalArgumentException("Missing ROM");
+            }
+        } catch (IllegalArgumentException | IndexOutOfBoundsException error) {
+            System.err.println(error.getMessage());
+            System.err.println("usage: RewindReport <rom|file.asm|directory>... [--frames N] [--ipf N] [--budget KB]");
+            System.exit(2);
+        }
+
+        RomLoader loader = new RomLoader();
+        boolean failed = false;
+        System.out.println(String.format("budget %d KB", budget / 1024));
+        System.out.println(String.format("%-12s %10s %12s %10s", "ROM", "KB/minute", "minutes", "rewind"));
+        for(Path rom : roms) {
+            VirtualMachineState state = new VirtualMachineState(loader.load(rom), new SwitchEngine());
+            RewindBuffer buffer = new RewindBuffer(budget);
+            ArrayList<byte[]> expected = new ArrayList<>();
+            ArrayList<Integer> keypads = new ArrayList<>();
+            InputScript.RandomInput input = new InputScript.RandomInput(0);
+            for(int frame=0; frame < frames; ++frame) {
+                state.setKeypad(input.getKeypad(frame));
+                try {
+                    state.runFrame(instructionsPerFrame);
+                } catch (VirtualMachineState.VMException | RuntimeException error) {
+                    break;
+                }
+                buffer.record(state);
+                expected.add(SaveState.save(state));
+                keypads.add(state.getKeypad());
+            }
+            String result = "ok";
+            int frame = expected.size() - 1;
+            state.setKeypad(HELD_KEYPAD);
+            while(buffer.rewind(state)) {
+                --frame;
+                if(state.getKeypad() != HELD_KEYPAD) {
+                    result = "keypad lost in frame " + frame;
+                    failed = true;
+                    break;
+                }
+                // compare the rest of the machine with keypad of the recorded frame
+                state.setKeypad(keypads.get(frame));
+                boolean same = Arrays.equals(SaveState.save(state), expected.get(frame));
+                state.setKeypad(HELD_KEYPAD);
+                if(!same) {
+                    result = "differs in frame " + frame;
+                    failed = true;
+                    break;
+                }
+            }
+            long perMinute = buffer.getBytesPerMinute();
+            System.out.println(String.format("%-12s %10.1f %12.1f %10s", rom.getFileName(), perMinute / 1024.0,
+                    perMinute == 0 ? 0 : (double)budget / perMinute, result));
+        }
+        if(failed) {
+            System.exit(1);
+        }
+    }
+}
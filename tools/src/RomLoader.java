@@ -0,0 +1,53 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * loads ROMs given either as assembly (.asm) or as bytecode
+ */
+public class RomLoader {
+    private Assembler assembler;
+
+    /**
+     * create loader
+     * @throws Exception when instruction factories cannot be set up
+     */
+    public RomLoader() throws Exception {
+        assembler = new Assembler(InstructionFactory.factoriesByMnemonic());
+    }
+
+    /**
+     * load bytecode of ROM, files ending with .asm are assembled first
+     * @param path path to ROM
+     * @return bytecode loaded at 0x200
+     * @throws IOException thrown on filesystem error
+     * @throws Assembler.AssemblerException thrown on assembly error
+     */
+    public byte[] load(Path path) throws IOException, Assembler.AssemblerException {
+        byte[] content = Files.readAllBytes(path);
+        if(path.getFileName().toString().endsWith(".asm")) {
+            return assembler.generateByteCode(new String(content), 0);
+        }
+        return content;
+    }
+
+    /**
+     * add ROM given on command line to list, directory adds all its files sorted by name
+     * @param argument path to ROM, assembly or directory with them
+     * @param roms list receiving paths
+     * @throws IOException thrown when directory cannot be listed
+     */
+    public static void addRoms(String argument, List<Path> roms) throws IOException {
+        Path path = Paths.get(argument);
+        if(Files.isDirectory(path)) {
+            try(Stream<Path> files = Files.list(path)) {
+                files.filter(Files::isRegularFile).sorted().forEach(roms::add);
+            }
+        } else {
+            roms.add(path);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * runs every ROM with and without RunAhead, reports time of a frame, extra time spent by run-ahead per frame and
+ * input latency (frames from key press until presented frame changes, best of all keys) without and with run-ahead,
+ * checks that run-ahead does not change the real machine
+ */
+public class RunAheadReport {
+    private static final int PRESS_FRAME = 120;
+    private static final int MAX_LATENCY = 60;
+
+    /**
+     * command line entry, exits with 1 when run-ahead changes the real machine
+     * @param argv ROMs (or directories with ROMs) and options
+     * @throws Exception when ROM cannot be loaded
+     */
+    public static void main(String[] argv) throws Exception {
+        ArrayList<Path> roms = new ArrayList<>();
+        int frames = 3600;
+        int ahead = 1;
+        int instructionsPerFrame = HeadlessRunner.DEFAULT_INSTRUCTIONS_PER_FRAME;
+        try {
+            for(int i=0; i < argv.length; ++i) {
+                switch(argv[i]) {
+                    case "--frames": frames = Integer.parseInt(argv[++i]); break;
+                    case "--ahead": ahead = Integer.parseInt(argv[++i]); break;
+                    case "--ipf": instructionsPerFrame = Integer.parseInt(argv[++i]); break;
+                    default:
+                        if(argv[i].startsWith("--")) {
+                            throw new IllegalArgumentException("Unknown argument " + argv[i]);
+                        }
+                        RomLoader.addRoms(argv[i], roms);
+                }
+            }
+            if(roms.isEmpty()) {
+                throw new IllegalArgumentException("Missing ROM");
+            }
+        } catch (IllegalArgumentException | IndexOutOfBoundsException error) {
+            System.err.println(error.getMessage());
+            System.err.println("usage: RunAheadReport <rom|file.asm|directory>... [--frames N] [--ahead N] [--ipf N]");
+            System.exit(2);
+        }
+
+        RomLoader loader = new RomLoader();
+        boolean failed = false;
+        System.out.println(String.format("run-ahead %d frames", ahead));
+        System.out.println(String.format("%-12s %12s %12s %8s %10s %8s", "ROM", "frame us", "extra us", "extra", "latency", "machine"));
+        for(Path rom : roms) {
+            byte[] program = loader.load(rom);
+            // warm up both paths before measuring
+            measure(program, frames, instructionsPerFrame, null);
+            measure(program, frames, instructionsPerFrame, new RunAhead(ahead));
+            Measurement base = measure(program, frames, instructionsPerFrame, null);
+            RunAhead runAhead = new RunAhead(ahead);
+            Measurement measured = measure(program, frames, instructionsPerFrame, runAhead);
+            boolean same = Arrays.equals(base.finalState, measured.finalState);
+            failed |= !same;
+            double frameMicros = base.nanos / 1e3 / Math.max(1, base.frames);
+            double extraMicros = runAhead.getExtraNanosPerFrame() / 1e3;
+            System.out.println(String.format("%-12s %12.2f %12.2f %7.0f%% %10s %8s", rom.getFileName(),
+                    frameMicros, extraMicros, frameMicros == 0 ? 0 : extraMicros * 100 / frameMicros,
+                    formatLatency(latency(program, instructionsPerFrame, 0)) + " -> "
+                            + formatLatency(latency(program, instructionsPerFrame, ahead)),
+                    same ? "same" : "DIFFERS"));
+        }
+        if(failed) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * run with random input and keep save state of the real machine at the end
+     */
+    private static class Measurement {
+        long nanos;
+        int frames;
+        byte[] finalState;
+    }
+
+    private static Measurement measure(byte[] program, int frames, int instructionsPerFrame, RunAhead runAhead) {
+        VirtualMachineState state = new VirtualMachineState(program, new SwitchEngine());
+        InputScript.RandomInput input = new InputScript.RandomInput(0);
+        Measurement measurement = new Measurement();
+        long start = System.nanoTime();
+        try {
+            for(; measurement.frames < frames; ++measurement.frames) {
+                int keypad = input.getKeypad(measurement.frames);
+                if(runAhead == null) {
+                    state.setKeypad(keypad);
+                    state.runFrame(instructionsPerFrame);
+                } else {
+                    runAhead.runFrame(state, keypad, instructionsPerFrame);
+                }
+            }
+        } catch (VirtualMachineState.VMException | RuntimeException ignored) {
+            // faulted machine cannot be continued, frames before the fault are measured
+        }
+        measurement.nanos = System.nanoTime() - start;
+        measurement.finalState = SaveState.save(state);
+        return measurement;
+    }
+
+    /**
+     * get the lowest number of frames after key press (held from PRESS_FRAME on) until presented frame differs
+     * from the frame presented without the press
+     * @return frames or -1 when no key changes the screen within MAX_LATENCY frames
+     */
+    private static int latency(byte[] program, int instructionsPerFrame, int ahead) {
+        int best = -1;
+        for(int key=0; key < 16; ++key) {
+            VirtualMachineState idle = new VirtualMachineState(program, new SwitchEngine());
+            VirtualMachineState pressed = new VirtualMachineState(program, new SwitchEngine());
+            RunAhead idleAhead = new RunAhead(ahead);
+            RunAhead pressedAhead = new RunAhead(ahead);
+            try {
+                for(int frame=0; frame < PRESS_FRAME + MAX_LATENCY; ++frame) {
+                    long[] idleFrame = idleAhead.runFrame(idle, 0, instructionsPerFrame);
+                    long[] pressedFrame = pressedAhead.runFrame(pressed, frame >= PRESS_FRAME ? 1 << key : 0, instructionsPerFrame);
+                    if(!Arrays.equals(idleFrame, pressedFrame)) {
+                        if(frame >= PRESS_FRAME && (best < 0 || frame - PRESS_FRAME < best)) {
+                            best = frame - PRESS_FRAME;
+                        }
+                        break;
+                    }
+                }
+            } catch (VirtualMachineState.VMException | RuntimeException ignored) {
+                // key makes no visible difference before the fault
+            }
+        }
+        return best;
+    }
+
+    private static String formatLatency(int frames) {
+        return frames < 0 ? "-" : Integer.toString(frames);
+    }
+}
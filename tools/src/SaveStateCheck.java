@@ -0,0 +1,200 @@
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * round trip check of SaveState: every ROM is run with random input, after every frame the machine is saved and
+ * loaded into a machine with another program and both are compared (registers, I, ip, timers, call stack, memory,
+ * framebuffer, keypad and random generator), at intervals both machines continue for a while and are compared again,
+ * a recursive ROM checks call stack deeper than 16 bits, at the end average save and load times are printed
+ */
+public class SaveStateCheck {
+    private static final int CONTINUE_PERIOD = 60;
+    private static final int CONTINUE_FRAMES = 30;
+    // ROM calling itself forever, its call stack outgrows 16 bit depth
+    private static final byte[] RECURSIVE_ROM = { 0x22, 0x00 };
+    private static final int RECURSION_DEPTH = 0x10000 + 1000;
+
+    private long saveNanos = 0;
+    private long loadNanos = 0;
+    private long roundTrips = 0;
+
+    /**
+     * run ROM and check save state after every frame
+     * @param program bytecode
+     * @param frames number of frames
+     * @param instructionsPerFrame instructions per frame
+     * @param seed random seed of machine and input
+     * @return description of first mismatch or null when all round trips matched
+     */
+    public String check(byte[] program, int frames, int instructionsPerFrame, long seed) {
+        ExecutionEngine engine = new SwitchEngine();
+        VirtualMachineState state = new VirtualMachineState(program, engine);
+        VirtualMachineState restored = new VirtualMachineState(new byte[] { 0x12, 0x34 }, engine);
+        state.setRandomSeed(seed);
+        InputScript.RandomInput input = new InputScript.RandomInput(seed);
+        ByteBuffer buffer = ByteBuffer.allocate(SaveState.size(state));
+        for(int frame=0; frame < frames; ++frame) {
+            state.setKeypad(input.getKeypad(frame));
+            try {
+                state.runFrame(instructionsPerFrame);
+            } catch (VirtualMachineState.VMException | RuntimeException error) {
+                // faulted machine cannot be continued, its state was checked in previous frames
+                return null;
+            }
+            if(buffer.capacity() < SaveState.size(state)) {
+                buffer = ByteBuffer.allocate(SaveState.size(state));
+            }
+            buffer.clear();
+            long start = System.nanoTime();
+            SaveState.write(state, buffer);
+            long saved = System.nanoTime();
+            buffer.flip();
+            SaveState.read(buffer, restored);
+            loadNanos += System.nanoTime() - saved;
+            saveNanos += saved - start;
+            ++roundTrips;
+            String mismatch = compare(state, restored);
+            if(mismatch != null) {
+                return String.format("frame %d: %s differs after load", frame, mismatch);
+            }
+            if(frame % CONTINUE_PERIOD == 0) {
+                mismatch = continueBoth(state, restored, instructionsPerFrame);
+                if(mismatch != null) {
+                    return String.format("frame %d: %s differs after continuing loaded machine", frame, mismatch);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * save and load machine whose call stack is deeper than 16 bits can count
+     * @return description of mismatch or null when round trip matched
+     */
+    public String checkDeepCallStack() {
+        ExecutionEngine engine = new SwitchEngine();
+        VirtualMachineState state = new VirtualMachineState(RECURSIVE_ROM, engine);
+        VirtualMachineState restored = new VirtualMachineState(new byte[] { 0x12, 0x34 }, engine);
+        try {
+            state.runFrame(RECURSION_DEPTH);
+        } catch (VirtualMachineState.VMException error) {
+            return "recursive ROM faulted: " + error.getMessage();
+        }
+        SaveState.load(SaveState.save(state), restored);
+        ++roundTrips;
+        String mismatch = compare(state, restored);
+        if(mismatch == null) {
+            mismatch = continueBoth(state, restored, HeadlessRunner.DEFAULT_INSTRUCTIONS_PER_FRAME);
+        }
+        return mismatch == null ? null : String.format("depth %d: %s differs after load", state.getCallStackDepth(), mismatch);
+    }
+
+    /**
+     * run original and loaded machine for a while, they stay equal only when nothing is missing in save state
+     * (e.g. both get the same random numbers only when generator state was saved)
+     */
+    private static String continueBoth(VirtualMachineState state, VirtualMachineState restored, int instructionsPerFrame) {
+        try {
+            for(int frame=0; frame < CONTINUE_FRAMES; ++frame) {
+                state.runFrame(instructionsPerFrame);
+                restored.runFrame(instructionsPerFrame);
+            }
+        } catch (VirtualMachineState.VMException | RuntimeException error) {
+            return null;
+        }
+        return compare(state, restored);
+    }
+
+    /**
+     * compare full state of two machines
+     * @return name of first different part or null when equal
+     */
+    private static String compare(VirtualMachineState a, VirtualMachineState b) {
+        for(int n=0; n < 16; ++n) {
+            if(a.getReg(n) != b.getReg(n)) {
+                return "V" + Integer.toHexString(n).toUpperCase();
+            }
+        }
+        if(a.getRegI() != b.getRegI()) {
+            return "I";
+        }
+        if(a.getIp() != b.getIp()) {
+            return "ip";
+        }
+        if(a.getDelayTimerCounter() != b.getDelayTimerCounter() || a.getSoundTimerCounter() != b.getSoundTimerCounter()) {
+            return "timer";
+        }
+        if(!Arrays.equals(a.getCallStack(), b.getCallStack())) {
+            return "call stack";
+        }
+        if(StateHash.memory(a) != StateHash.memory(b)) {
+            return "memory";
+        }
+        if(!Arrays.equals(a.getFramebuffer(), b.getFramebuffer())) {
+            return "framebuffer";
+        }
+        if(a.getKeypad() != b.getKeypad()) {
+            return "keypad";
+        }
+        if(a.getRandomState() != b.getRandomState()) {
+            return "random generator";
+        }
+        return null;
+    }
+
+    /**
+     * command line entry, exits with 1 on mismatch
+     * @param argv ROMs (or directories with ROMs) and options
+     * @throws Exception when ROM cannot be loaded
+     */
+    public static void main(String[] argv) throws Exception {
+        ArrayList<Path> roms = new ArrayList<>();
+        int frames = HeadlessRunner.DEFAULT_FRAMES;
+        int instructionsPerFrame = HeadlessRunner.DEFAULT_INSTRUCTIONS_PER_FRAME;
+        long seed = 0;
+        try {
+            for(int i=0; i < argv.length; ++i) {
+                switch(argv[i]) {
+                    case "--frames": frames = Integer.parseInt(argv[++i]); break;
+                    case "--ipf": instructionsPerFrame = Integer.parseInt(argv[++i]); break;
+                    case "--seed": seed = Long.parseLong(argv[++i]); break;
+                    default:
+                        if(argv[i].startsWith("--")) {
+                            throw new IllegalArgumentException("Unknown argument " + argv[i]);
+                        }
+                        RomLoader.addRoms(argv[i], roms);
+                }
+            }
+            if(roms.isEmpty()) {
+                throw new IllegalArgumentException("Missing ROM");
+            }
+        } catch (IllegalArgumentException | IndexOutOfBoundsException error) {
+            System.err.println(error.getMessage());
+            System.err.println("usage: SaveStateCheck <rom|file.asm|directory>... [--frames N] [--ipf N] [--seed N]");
+            System.exit(2);
+        }
+
+        RomLoader loader = new RomLoader();
+        SaveStateCheck check = new SaveStateCheck();
+        boolean failed = false;
+        String deep = check.checkDeepCallStack();
+        if(deep != null) {
+            failed = true;
+            System.out.println("recursive ROM: " + deep);
+        }
+        for(Path rom : roms) {
+            String mismatch = check.check(loader.load(rom), frames, instructionsPerFrame, seed);
+            if(mismatch != null) {
+                failed = true;
+                System.out.println(rom + ": " + mismatch);
+            }
+        }
+        System.out.println(String.format("%d round trips, save %.2f us, load %.2f us", check.roundTrips,
+                check.saveNanos / 1e3 / Math.max(1, check.roundTrips), check.loadNanos / 1e3 / Math.max(1, check.roundTrips)));
+        if(failed) {
+            System.exit(1);
+        }
+    }
+}
@@ -36,10 +36,23 @@ public interface ControllerInterface {
      * handles user pressing step over
      */
     void stepOver();
+    /**
+     * handles user pressing step back button
+     */
+    void stepBack();
     /**
      * handles user pressing continue button
      */
     void cont();
+    /**
+     * handles user pressing reverse continue button
+     */
+    void reverseContinue();
+    /**
+     * handles user toggling breakpoint
+     * @param linen selected line number
+     */
+    void toggleBreakpoint(int linen);
     /**
      * handles user pressing stop button
      */
@@ -48,6 +61,11 @@ public interface ControllerInterface {
      * handles user pressing exit button
      */
     void exitEmulation();
+    /**
+     * handles user holding rewind key
+     * @param rewinding true while key is held
+     */
+    void setRewinding(boolean rewinding);
     /**
      * setting up event handlers for view
      * @param view view event handlers
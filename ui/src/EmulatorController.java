@@ -3,8 +3,9 @@ import java.awt.event.KeyEvent;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.Optional;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
 
 /**
  * controller in MVC
@@ -13,7 +14,7 @@ public class EmulatorController implements ControllerInterface {
 
     private Optional<Events.ViewForController> viewEvents = Optional.empty();
     private Optional<Events.ModelForController> modelEvents = Optional.empty();
-    private ExecutorService taskPool;
+    private Executor taskPool;
 
     private enum State {
         Ready,
@@ -22,12 +23,18 @@ public class EmulatorController implements ControllerInterface {
     }
 
     private State state = State.Ready;
+    private volatile boolean rewinding = false;
+
+    private static final int INSTRUCTIONS_PER_FRAME = 10;
+    private static final long FRAME_NANOS = 1_000_000_000L / 60;
+    // status bar with rewind history is refreshed 4 times per second
+    private static final int REWIND_STATUS_FRAMES = 15;
 
     /**
-     * creates controller
+     * creates controller, every task runs on its own thread (virtual thread on Java 21 or newer)
      */
     public EmulatorController() {
-        taskPool = Executors.newFixedThreadPool(4);
+        taskPool = task -> VirtualThreads.newThread("controller-task", task).start();
     }
 
     /**
@@ -198,18 +205,136 @@ public class EmulatorController implements ControllerInterface {
             if (modelEvents.isPresent()) {
                 Events.ModelForController model = modelEvents.get();
                 setState(State.Running);
-                do {
+                // the first instruction leaves breakpoint at which emulation stopped
+                boolean[] started = { false };
+                BooleanSupplier condition = () -> {
+                    boolean atBreakpoint = started[0] && model.sendIsAtBreakpointEvent();
+                    started[0] = true;
+                    return getState() == State.Running && !atBreakpoint;
+                };
+                // with breakpoints user is debugging and wants to reach them fast, otherwise the program is played
+                boolean debugging = model.sendGetBreakpointLinesEvent().length > 0;
+                model.sendSetUndoLoggingEvent(debugging);
+                if(debugging) {
+                    runUncapped(model, condition);
+                } else {
+                    model.sendSetRunAheadEnabledEvent(true);
+                    runPaced(model, condition);
+                    model.sendSetRunAheadEnabledEvent(false);
+                }
+                if(getState() == State.Running) {
+                    setState(State.Stop);
+                }
+                viewEvents.ifPresent(view -> {
+                    updateUI(model, view);
+                    if(getState() == State.Stop && !debugging) {
+                        view.sendSetStatusTextEvent(String.format("Stop (run-ahead cost %.1f us per frame)",
+                                model.sendGetRunAheadExtraNanosPerFrameEvent() / 1e3));
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * execute instructions while condition holds as fast as possible, used by debugger (step over, continue to
+     * breakpoint), when GetKey finds no pressed key the thread parks like in runPaced
+     * @param model model executing instructions
+     * @param condition checked before every instruction
+     */
+    private void runUncapped(Events.ModelForController model, BooleanSupplier condition) {
+        while(condition.getAsBoolean()) {
+            try {
+                model.sendExecuteOpcodeEvent();
+            } catch (VirtualMachineState.VMException ignored) {
+
+            }
+            if(model.sendIsWaitingForKeyEvent()) {
+                try {
+                    model.sendAwaitInputEvent();
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * play program while condition holds, INSTRUCTIONS_PER_FRAME instructions per 60 Hz frame,
+     * every frame is recorded to rewind history and while rewind key is held one recorded frame is played
+     * backwards instead, when GetKey finds no pressed key the thread parks until keypad changes or emulation state
+     * changes instead of executing the same GetKey every frame
+     * @param model model executing instructions
+     * @param condition checked before every instruction
+     */
+    private void runPaced(Events.ModelForController model, BooleanSupplier condition) {
+        long next = System.nanoTime();
+        for(long frame=0; ; ++frame) {
+            if(rewinding) {
+                if(!condition.getAsBoolean()) {
+                    return;
+                }
+                boolean rewound = model.sendRewindFrameEvent();
+                if(frame % REWIND_STATUS_FRAMES == 0 || !rewound) {
+                    showRewindStatus(model, rewound);
+                }
+            } else {
+                for(int i=0; i < INSTRUCTIONS_PER_FRAME; ++i) {
+                    if(!condition.getAsBoolean()) {
+                        return;
+                    }
                     try {
                         model.sendExecuteOpcodeEvent();
-                    } catch (VirtualMachineState.VMException e) {
+                    } catch (VirtualMachineState.VMException ignored) {
 
                     }
-                } while (getState() == State.Running);
-                viewEvents.ifPresent(view -> updateUI(model, view));
+                    if(model.sendIsWaitingForKeyEvent()) {
+                        try {
+                            model.sendAwaitInputEvent();
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                        next = System.nanoTime();
+                        break;
+                    }
+                }
+                model.sendRecordFrameEvent();
+                model.sendRunAheadFrameEvent(INSTRUCTIONS_PER_FRAME);
+            }
+            next += FRAME_NANOS;
+            long wait = next - System.nanoTime();
+            if(wait > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            } else {
+                next = System.nanoTime();
             }
         }
     }
 
+    private void showRewindStatus(Events.ModelForController model, boolean rewound) {
+        viewEvents.ifPresent(view -> view.sendSetStatusTextEvent(String.format("%s (%.1f s history, %d KB per minute)",
+                rewound ? "Rewinding" : "Rewind history empty", model.sendGetRewindFramesEvent() / 60.0,
+                model.sendGetRewindBytesPerMinuteEvent() / 1024)));
+    }
+
+    /**
+     * handles user holding rewind key, rewinding plays recorded frames backwards while emulation runs
+     * @param rewinding true while key is held
+     */
+    @Override
+    public void setRewinding(boolean rewinding) {
+        boolean stopped = this.rewinding && !rewinding;
+        this.rewinding = rewinding;
+        modelEvents.ifPresent(Events.ModelForController::sendWakeUpEvent);
+        if(stopped && getState() == State.Running) {
+            setState(State.Running);
+        }
+    }
+
     /**
      * handles user pressing continue button
      */
@@ -218,8 +343,70 @@ public class EmulatorController implements ControllerInterface {
         taskPool.execute(() -> contImpl());
     }
 
+    private void reverseContinueImpl() {
+        if(getState() == State.Stop) {
+            if (modelEvents.isPresent() && viewEvents.isPresent()) {
+                Events.ModelForController model = modelEvents.get();
+                Events.ViewForController view = viewEvents.get();
+                boolean reached = model.sendReverseContinueEvent();
+                updateUI(model, view);
+                view.sendSetStatusTextEvent(reached ? "Stop" : "Stop (beginning of history)");
+            }
+        }
+    }
+
+    /**
+     * handles user pressing reverse continue button, emulation goes back to the last executed breakpoint
+     */
+    @Override
+    public void reverseContinue() {
+        taskPool.execute(this::reverseContinueImpl);
+    }
+
+    private void stepBackImpl() {
+        if(getState() == State.Stop) {
+            if (modelEvents.isPresent() && viewEvents.isPresent()) {
+                Events.ModelForController model = modelEvents.get();
+                Events.ViewForController view = viewEvents.get();
+                boolean undone = model.sendStepBackEvent();
+                updateUI(model, view);
+                view.sendSetStatusTextEvent(undone ? "Stop" : "Stop (beginning of history)");
+            }
+        }
+    }
+
+    /**
+     * handles user pressing step back button
+     */
+    @Override
+    public void stepBack() {
+        taskPool.execute(this::stepBackImpl);
+    }
+
+    private void toggleBreakpointImpl(int linen) {
+        if(getState() == State.Stop) {
+            if (modelEvents.isPresent() && viewEvents.isPresent()) {
+                Events.ModelForController model = modelEvents.get();
+                model.sendToggleBreakpointEvent(linen);
+                updateUI(model, viewEvents.get());
+            }
+        }
+    }
+
+    /**
+     * handles user toggling breakpoint, breakpoint is placed on the nearest line with code
+     * @param linen selected line number
+     */
+    @Override
+    public void toggleBreakpoint(int linen) {
+        taskPool.execute(() -> toggleBreakpointImpl(linen));
+    }
+
     private void updateUI(Events.ModelForController model, Events.ViewForController view) {
         view.sendClearLineColorsEvent();
+        for(int linen : model.sendGetBreakpointLinesEvent()) {
+            view.sendSetLineColorEvent(linen, Color.PINK);
+        }
         view.sendSetLineColorEvent(model.sendGetCurrentExecutingLineEvent(), Color.GREEN);
         Registers.iterate().forEach(r ->
                 view.sendSetRegisterValueEvent(r,
@@ -234,6 +421,7 @@ public class EmulatorController implements ControllerInterface {
             if (modelEvents.isPresent() && viewEvents.isPresent()) {
                 Events.ModelForController model = modelEvents.get();
                 Events.ViewForController view = viewEvents.get();
+                model.sendSetUndoLoggingEvent(true);
                 try {
                     model.sendExecuteOpcodeEvent();
                 } catch (VirtualMachineState.VMException e) {
@@ -257,14 +445,9 @@ public class EmulatorController implements ControllerInterface {
             if (modelEvents.isPresent()) {
                 Events.ModelForController model = modelEvents.get();
                 int endIp = model.sendGetRegisterValueEvent(Registers.ip) + 2;
+                model.sendSetUndoLoggingEvent(true);
                 setState(State.Running);
-                do {
-                    try {
-                        model.sendExecuteOpcodeEvent();
-                    } catch (VirtualMachineState.VMException ignored) {
-
-                    }
-                } while (model.sendGetRegisterValueEvent(Registers.ip) != endIp && getState() == State.Running);
+                runUncapped(model, () -> model.sendGetRegisterValueEvent(Registers.ip) != endIp && getState() == State.Running);
                 viewEvents.ifPresent(viewForController -> updateUI(model, viewForController));
                 setState(State.Stop);
             }
@@ -282,6 +465,7 @@ public class EmulatorController implements ControllerInterface {
 
     private void stopImpl() {
         setState(State.Stop);
+        modelEvents.ifPresent(Events.ModelForController::sendWakeUpEvent);
     }
     /**
      * handles user pressing stop button
@@ -337,6 +521,7 @@ public class EmulatorController implements ControllerInterface {
     private void exitEmulationImpl() {
         if(getState() == State.Stop || getState() == State.Running) {
             setState(State.Ready);
+            modelEvents.ifPresent(Events.ModelForController::sendWakeUpEvent);
             if(viewEvents.isPresent()) {
                 Events.ViewForController view = viewEvents.get();
                 view.sendEnableAssemblerEditingEvent();
@@ -0,0 +1,544 @@
+import java.awt.*;
+import java.awt.event.KeyEvent;
+import java.awt.image.BufferedImage;
+import java.io.*;
+import java.nio.Buffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.Set;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * class representing model in MVC
+ */
+public class EmulatorModel implements ModelInterface {
+    private byte[] byteCode;
+    private AssemblyListing listing;
+    private VirtualMachineState vmState;
+    private Assembler.Assembled vmCode;
+
+    private Disassembler disassembler;
+    private Assembler assembler;
+    private Keyboard keyboard = new Keyboard();
+    private Timer timer = null;
+    private RewindBuffer rewind = new RewindBuffer(RewindBuffer.DEFAULT_BUDGET);
+    private UndoLog undoLog = new UndoLog(UndoLog.DEFAULT_MAX_CHECKPOINTS);
+    private volatile boolean undoLogging = false;
+    private Set<Integer> breakpoints = ConcurrentHashMap.newKeySet();
+    private RunAhead runAhead = new RunAhead(RUN_AHEAD_FRAMES);
+    private volatile boolean runAheadEnabled = false;
+    // ReentrantLock instead of synchronized, controller runs on virtual threads which would pin carrier on monitor
+    // run-ahead restores timers, stateLock keeps timer tick out of it
+    private final ReentrantLock stateLock = new ReentrantLock();
+    private final ReentrantLock inputLock = new ReentrantLock();
+    private final Condition inputChanged = inputLock.newCondition();
+    private boolean wakeUpRequested = false;
+
+    // frames presented ahead of the machine while emulation runs
+    private static final int RUN_AHEAD_FRAMES = 1;
+
+    Optional<Events.ViewForModel> events = Optional.empty();
+
+    /**
+     * creates model
+     * @throws Exception throws when provided invalid instruction factory list
+     */
+    public EmulatorModel() throws Exception {
+        byteCode = new byte[]{};
+
+        disassembler = new Disassembler(InstructionFactory.factoriesByIndex(), InstructionFactory.decodeTable());
+        assembler = new Assembler(InstructionFactory.factoriesByMnemonic());
+        listing = new AssemblyListing(assembler);
+
+    }
+
+    /**
+     * handles key press event
+     * @param keyEvent event send
+     */
+    @Override
+    public void keyPressed(KeyEvent keyEvent) {
+        if(vmState != null) {
+            keyboard.keyPressed(keyEvent, vmState);
+        }
+    }
+
+    /**
+     * handles key released event
+     * @param keyEvent event send
+     */
+    @Override
+    public void keyReleased(KeyEvent keyEvent) {
+        if(vmState != null) {
+            keyboard.keyReleased(keyEvent, vmState);
+        }
+    }
+
+    /**
+     * get the screen as 2 dimensional array
+     * @return screen buffer as int array
+     */
+    @Override
+    public int[][] getScreen() {
+        int[][] screen = new int[VirtualMachineState.SCREEN_HEIGHT][VirtualMachineState.SCREEN_WIDTH];
+        for(int y=0; y < screen.length; ++y) {
+            for(int x=0; x < screen[y].length; ++x) {
+                screen[y][x] = vmState.getPixel(x, y);
+            }
+        }
+        return screen;
+    }
+
+    /**
+     * get pixel value
+     * @param x x coordinate
+     * @param y y coordinate
+     * @return RGB value
+     */
+    @Override
+    public int getPixel(int x, int y) {
+        return vmState.getPixel(x,y);
+    }
+
+    /**
+     * get selected register value
+     * @param r selected register
+     * @return register value
+     */
+    @Override
+    public int getRegisterValue(Registers r) {
+        if(r == Registers.I) {
+            return vmState.getRegI();
+        } else if(r == Registers.ip) {
+            return vmState.getIp();
+        } else {
+            return vmState.getReg(Registers.toInt(r));
+        }
+    }
+
+    /**
+     * set selected register value
+     * @param r selected register
+     * @param value new value
+     */
+    @Override
+    public void setRegisterValue(Registers r, int value) {
+        if(r != Registers.Invalid && vmState != null)
+            vmState.setReg(Registers.toInt(r), value);
+    }
+
+    /**
+     * load assembly from file
+     * @param path path to assembly file
+     * @return loaded assembler to display
+     * @throws IOException throws on filesystem error
+     */
+    @Override
+    public String loadAssemblyFromFile(String path) throws IOException {
+        loadKeyMapping(path);
+        return new String(Files.readAllBytes(Paths.get(path)));
+    }
+    /**
+     * load bytecode from file
+     * @param path path to bytecode file
+     * @return disassembled bytecode to display
+     * @throws IOException throws on filesystem error
+     */
+    @Override
+    public String loadByteCodeFromFile(String path) throws IOException {
+        byte[] content = Files.readAllBytes(Paths.get(path));
+        loadKeyMapping(path);
+        return disassembler.disassemble(content);
+    }
+
+    /**
+     * switch keyboard to mapping profile of loaded program (or to default mapping when it has none)
+     * @param path path to program
+     * @throws IOException thrown when profile cannot be read or is invalid
+     */
+    private void loadKeyMapping(String path) throws IOException {
+        try {
+            keyboard.setKeyMapping(Keyboard.loadMappingFor(Paths.get(path)));
+        } catch (IllegalArgumentException error) {
+            throw new IOException("Invalid key mapping profile: " + error.getMessage());
+        }
+    }
+
+    /**
+     * save assembly to file
+     * @param path path to file selected by user
+     * @param assembly assembly from view
+     * @throws IOException throws on filesystem error
+     */
+    @Override
+    public void saveAssemblyToFile(String path, String assembly) throws IOException {
+        Files.write(Paths.get(path), Collections.singleton(assembly));
+    }
+    /**
+     * save assembled code to file
+     * @param path path to file selected by user
+     * @param assembly assembly from view
+     * @throws IOException throws on filesystem error
+     */
+    @Override
+    public void saveByteCodeToFile(String path, String assembly) throws Assembler.AssemblerException, IOException {
+        byteCode = assembler.generateByteCode(assembly, 0);
+        Files.write(Paths.get(path), byteCode);
+    }
+
+    /**
+     * handler user pressing run button
+     * @param assembly
+     * @throws Assembler.AssemblerException
+     */
+    @Override
+    public void startEmulation(String assembly) throws Assembler.AssemblerException {
+        vmCode = assembler.generateOutput(assembly, 0);
+        if(timer != null) {
+            timer.cancel();
+        }
+        VirtualMachineState state = new VirtualMachineState(vmCode.getByteCode(), disassembler);
+        state.setDisplayListener(this::screenUpdated);
+        state.setSoundListener(() -> Toolkit.getDefaultToolkit().beep());
+        state.setInputListener(keypad -> wakeUp());
+        vmState = state;
+        rewind.clear();
+        undoLog.clear();
+        breakpoints.clear();
+        timer = new Timer(true);
+        final int timer_freq = 1000 / 60;
+        timer.schedule(new TimerTask() {
+            @Override
+            public void run() {
+                stateLock.lock();
+                try {
+                    state.timerInterrupt();
+                } finally {
+                    stateLock.unlock();
+                }
+            }
+        }, timer_freq, timer_freq);
+    }
+
+    /**
+     * copies framebuffer of virtual machine to image displayed by view, while run-ahead is enabled the view shows
+     * only frames presented by runAheadFrame
+     * @param state virtual machine whose screen changed
+     */
+    private void screenUpdated(VirtualMachineState state) {
+        if(!runAheadEnabled) {
+            present(state.getFramebuffer());
+        }
+    }
+
+    /**
+     * copies framebuffer to image displayed by view
+     * @param framebuffer rows of pixels
+     */
+    private void present(long[] framebuffer) {
+        if(events.isPresent()) {
+            BufferedImage image = new BufferedImage(VirtualMachineState.SCREEN_WIDTH, VirtualMachineState.SCREEN_HEIGHT, BufferedImage.TYPE_INT_RGB);
+            for(int y=0; y < framebuffer.length; ++y) {
+                for(int x=0; x < VirtualMachineState.SCREEN_WIDTH; ++x) {
+                    image.setRGB(x, y, (framebuffer[y] >>> x & 1) != 0 ? 0xffffff : 0);
+                }
+            }
+            events.get().sendSetScreenEvent(image);
+        }
+    }
+
+    /**
+     * function tries to disassemble selected assembly line as valid instruction
+     * @param linen line number to change
+     * @param assembly assembly to recompile
+     * @return recompiled assembly
+     * @throws Assembler.AssemblerException thrown on assembly error
+     */
+    @Override
+    public String recompileAsCode(int linen, String assembly) throws Assembler.AssemblerException {
+        loadListing(assembly);
+        byte[] compiled = listing.getByteCode(linen);
+        if(compiled.length == 0) {
+            return assembly;
+        }
+        int count = 1;
+        if(compiled.length == 1 && linen + 1 < listing.size()) {
+            byte[] addition = listing.getByteCode(linen + 1);
+            count = 2;
+            if(addition.length == 1) {
+                compiled = new byte[]{ compiled[0], addition[0] };
+            } else if(addition.length == 2){
+                compiled = new byte[]{ compiled[0], addition[0], addition[1] };
+            } else {
+                return assembly;
+            }
+        }
+        listing.replace(linen, count, Arrays.asList(disassembler.disassemble(compiled).split("\n")));
+        return listing.getText();
+    }
+    /**
+     * function tries to disassemble selected assembly line as emit byte meta instruction
+     * @param linen line number to change
+     * @param assembly assembly to recompile
+     * @return recompiled assembly
+     * @throws Assembler.AssemblerException thrown on assembly error
+     */
+    @Override
+    public String recompileAsData(int linen, String assembly) throws Assembler.AssemblerException {
+        loadListing(assembly);
+        byte[] compiled = listing.getByteCode(linen);
+        if(compiled.length == 1) {
+            return assembly;
+        }
+        String data = disassembler.disassemble(compiled[0], 0) + disassembler.disassemble(compiled[1], 0);
+        listing.replace(linen, 1, Arrays.asList(data.split("\n")));
+        return listing.getText();
+    }
+
+    /**
+     * assembles whole code only when it was changed by the user since the last recompilation
+     * @param assembly assembly from view
+     * @throws Assembler.AssemblerException thrown on assembly error
+     */
+    private void loadListing(String assembly) throws Assembler.AssemblerException {
+        if(!listing.matches(assembly)) {
+            listing.load(assembly);
+        }
+    }
+
+    /**
+     * execute one instruction at current ip, while debugging instructions are logged so they can be undone
+     * @throws VirtualMachineState.VMException thrown by instruction
+     */
+    @Override
+    public void executeOpcode() throws VirtualMachineState.VMException {
+        if(undoLogging) {
+            undoLog.step(vmState);
+        } else {
+            vmState.executeInstruction();
+        }
+    }
+
+    /**
+     * enable or disable logging of executed instructions, history is dropped when logging is disabled because
+     * instructions executed without it cannot be undone
+     * @param enabled true while debugging (stepping or continuing to breakpoint)
+     */
+    @Override
+    public void setUndoLogging(boolean enabled) {
+        if(undoLogging && !enabled) {
+            undoLog.clear();
+        }
+        undoLogging = enabled;
+    }
+
+    /**
+     * undo the last instruction executed by debugger
+     * @return false when there is nothing to undo
+     */
+    @Override
+    public boolean stepBack() {
+        return vmState != null && undoLog.stepBack(vmState);
+    }
+
+    /**
+     * go back to the last executed instruction with breakpoint or to the oldest instruction in history
+     * @return true when breakpoint was reached
+     */
+    @Override
+    public boolean reverseContinue() {
+        return vmState != null && undoLog.reverseContinue(vmState, breakpoints::contains);
+    }
+
+    /**
+     * set or remove breakpoint at the line or the nearest line after it with code
+     * @param linen line number
+     * @return line number of toggled breakpoint or -1 when there is no code at or after the line
+     */
+    @Override
+    public int toggleBreakpoint(int linen) {
+        if(vmCode == null) {
+            return -1;
+        }
+        int offset = vmCode.getSourceMap().getNearestOffset(linen);
+        if(offset < 0) {
+            return -1;
+        }
+        if(!breakpoints.remove(offset + 0x200)) {
+            breakpoints.add(offset + 0x200);
+        }
+        return vmCode.getSourceMap().getLine(offset);
+    }
+
+    /**
+     * check breakpoint at current ip
+     * @return true when instruction at ip has breakpoint
+     */
+    @Override
+    public boolean isAtBreakpoint() {
+        return vmState != null && breakpoints.contains(vmState.getIp());
+    }
+
+    /**
+     * get lines with breakpoints
+     * @return line numbers
+     */
+    @Override
+    public int[] getBreakpointLines() {
+        if(vmCode == null) {
+            return new int[0];
+        }
+        return breakpoints.stream().mapToInt(address -> vmCode.getSourceMap().getLine(address - 0x200)).toArray();
+    }
+
+    /**
+     * record current frame to rewind history
+     */
+    @Override
+    public void recordFrame() {
+        if(vmState != null) {
+            rewind.record(vmState);
+        }
+    }
+
+    /**
+     * restore previous frame from rewind history, screen is updated through display listener, keys held by player
+     * are kept
+     * @return false when history is empty
+     */
+    @Override
+    public boolean rewindFrame() {
+        if(vmState != null && rewind.rewind(vmState)) {
+            // the machine jumped to another frame, logged instructions cannot be undone from here
+            undoLog.clear();
+            if(runAheadEnabled) {
+                present(vmState.getFramebuffer());
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * check if machine is blocked by GetKey with no key pressed
+     * @return true when executing instructions would only repeat GetKey
+     */
+    @Override
+    public boolean isWaitingForKey() {
+        return vmState != null && vmState.isWaitingForKey();
+    }
+
+    /**
+     * park calling thread while machine waits for key, timers keep ticking on their own timer thread
+     * @throws InterruptedException when interrupted while waiting
+     */
+    @Override
+    public void awaitInput() throws InterruptedException {
+        inputLock.lock();
+        try {
+            while(!wakeUpRequested && isWaitingForKey()) {
+                inputChanged.await();
+            }
+            wakeUpRequested = false;
+        } finally {
+            inputLock.unlock();
+        }
+    }
+
+    /**
+     * wake thread parked in awaitInput, called on keypad change and by controller when emulation state changes
+     */
+    @Override
+    public void wakeUp() {
+        inputLock.lock();
+        try {
+            wakeUpRequested = true;
+            inputChanged.signalAll();
+        } finally {
+            inputLock.unlock();
+        }
+    }
+
+    /**
+     * enable or disable run-ahead, disabling shows the real screen again
+     * @param enabled true while emulation runs
+     */
+    @Override
+    public void setRunAheadEnabled(boolean enabled) {
+        runAheadEnabled = enabled;
+        if(!enabled && vmState != null) {
+            vmState.updateScreen();
+        }
+    }
+
+    /**
+     * present frame emulated ahead of the machine, the machine itself is not changed
+     * @param instructionsPerFrame instructions per frame
+     */
+    @Override
+    public void runAheadFrame(int instructionsPerFrame) {
+        if(vmState != null && runAheadEnabled) {
+            stateLock.lock();
+            try {
+                present(runAhead.runAhead(vmState, instructionsPerFrame));
+            } finally {
+                stateLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * get average extra time spent by run-ahead per frame
+     * @return nanoseconds per frame
+     */
+    @Override
+    public double getRunAheadExtraNanosPerFrame() {
+        return runAhead.getExtraNanosPerFrame();
+    }
+
+    /**
+     * get number of frames in rewind history
+     * @return frames
+     */
+    @Override
+    public int getRewindFrames() {
+        return rewind.getFrames();
+    }
+
+    /**
+     * get memory needed by one minute of rewind history
+     * @return bytes per minute
+     */
+    @Override
+    public long getRewindBytesPerMinute() {
+        return rewind.getBytesPerMinute();
+    }
+
+    /**
+     * get assembly line of currently executing instruction
+     * @return line number
+     */
+    @Override
+    public int getCurrentExecutingLineNumber() {
+        int linen = vmCode.getSourceMap().getLine(vmState.getIp() - 0x200);
+        return linen < 0 ? 0 : linen;
+    }
+
+    /**
+     * setup event handlers for view
+     * @param view view part of MVC
+     */
+    @Override
+    public void setupEventHandlers(ViewInterface view) {
+        events = Optional.of(new Events.ViewForModel(view));
+    }
+}
@@ -81,7 +81,14 @@ public final class EmulatorView extends JFrame implements ViewInterface  {
                 events.ifPresent(events -> events.sendMarkAsCodeEvent(assemblyView.getSelectedLine()));
                 break;
             case KeyEvent.VK_F5:
-                events.ifPresent(events -> events.sendContinueEvent());
+                if(keyEvent.isShiftDown()) {
+                    events.ifPresent(events -> events.sendReverseContinueEvent());
+                } else {
+                    events.ifPresent(events -> events.sendContinueEvent());
+                }
+                break;
+            case KeyEvent.VK_F6:
+                events.ifPresent(events -> events.sendStepBackEvent());
                 break;
             case KeyEvent.VK_F7:
                 events.ifPresent(events -> events.sendStepInEvent());
@@ -89,12 +96,25 @@ public final class EmulatorView extends JFrame implements ViewInterface  {
             case KeyEvent.VK_F8:
                 events.ifPresent(events -> events.sendStepOverEvent());
                 break;
+            case KeyEvent.VK_F9:
+                events.ifPresent(events -> events.sendToggleBreakpointEvent(assemblyView.getSelectedLine()));
+                break;
+            case KeyEvent.VK_BACK_SPACE:
+                // held key plays emulation backwards, the editor is read only while emulation runs
+                if(assemblyView.isInputDisabled()) {
+                    events.ifPresent(events -> events.sendRewindEvent(true));
+                }
+                break;
             default:
                 events.ifPresent(events -> events.sendKeyPressedEvent(keyEvent));
         }
     }
 
     private void onKeyRelease(KeyEvent keyEvent) {
+        if(keyEvent.getKeyCode() == KeyEvent.VK_BACK_SPACE) {
+            events.ifPresent(events -> events.sendRewindEvent(false));
+            return;
+        }
         events.ifPresent(events -> events.sendKeyReleasedEvent(keyEvent));
     }
 
@@ -319,6 +339,9 @@ public final class EmulatorView extends JFrame implements ViewInterface  {
             content.setEditable(false);
             inputDisabled = true;
         }
+        public boolean isInputDisabled() {
+            return inputDisabled;
+        }
     }
 
     private class Screen extends JPanel {
@@ -428,7 +451,9 @@ public final class EmulatorView extends JFrame implements ViewInterface  {
 
         private JButton stepInButton = null;
         private JButton stepOverButton = null;
+        private JButton stepBackButton = null;
         private JButton continueButton = null;
+        private JButton reverseContinueButton = null;
         private JButton stopButton = null;
         private JButton runButton = null;
         private JButton exitButton = null;
@@ -469,14 +494,18 @@ public final class EmulatorView extends JFrame implements ViewInterface  {
 
             stepInButton = new JButton("Step IN");
             stepOverButton = new JButton("Step OVER");
+            stepBackButton = new JButton("Step BACK");
             continueButton = new JButton("Continue");
+            reverseContinueButton = new JButton("Reverse");
             stopButton = new JButton("STOP");
             runButton = new JButton("RUN");
             exitButton = new JButton("EXIT");
 
             stepInButton.addActionListener(event -> stepIn());
             stepOverButton.addActionListener(event -> stepOver());
+            stepBackButton.addActionListener(event -> stepBack());
             continueButton.addActionListener(event -> cont());
+            reverseContinueButton.addActionListener(event -> reverseCont());
             stopButton.addActionListener(event -> stop());
             runButton.addActionListener(event -> run());
             exitButton.addActionListener(event -> exit());
@@ -492,7 +521,9 @@ public final class EmulatorView extends JFrame implements ViewInterface  {
             controlPanel.add(runButton);
             controlPanel.add(stepInButton);
             controlPanel.add(stepOverButton);
+            controlPanel.add(stepBackButton);
             controlPanel.add(continueButton);
+            controlPanel.add(reverseContinueButton);
             controlPanel.add(stopButton);
             controlPanel.add(exitButton);
 
@@ -582,6 +613,14 @@ public final class EmulatorView extends JFrame implements ViewInterface  {
             events.ifPresent(Events.ForView::sendStepOverEvent);
         }
 
+        private void stepBack() {
+            events.ifPresent(Events.ForView::sendStepBackEvent);
+        }
+
+        private void reverseCont() {
+            events.ifPresent(Events.ForView::sendReverseContinueEvent);
+        }
+
         private void run() {
             events.ifPresent(Events.ForView::sendRunEvent);
         }
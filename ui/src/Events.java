@@ -91,6 +91,28 @@ public class Events {
             SwingUtilities.invokeLater(() -> controller.stepOver());
         }
 
+        /**
+         * send step back emulation event
+         */
+        public void sendStepBackEvent() {
+            SwingUtilities.invokeLater(() -> controller.stepBack());
+        }
+
+        /**
+         * send reverse continue emulation event
+         */
+        public void sendReverseContinueEvent() {
+            SwingUtilities.invokeLater(() -> controller.reverseContinue());
+        }
+
+        /**
+         * send toggle breakpoint event
+         * @param linen line number of breakpoint
+         */
+        public void sendToggleBreakpointEvent(int linen) {
+            SwingUtilities.invokeLater(() -> controller.toggleBreakpoint(linen));
+        }
+
         /**
          * send mark as code event
          * @param linen line number to be marked as code
@@ -138,6 +160,14 @@ public class Events {
         public void sendExitEmulationEvent() {
             SwingUtilities.invokeLater(() -> controller.exitEmulation());
         }
+
+        /**
+         * send rewind event
+         * @param rewinding true while rewind key is held
+         */
+        public void sendRewindEvent(boolean rewinding) {
+            SwingUtilities.invokeLater(() -> controller.setRewinding(rewinding));
+        }
     }
 
     /**
@@ -353,6 +383,47 @@ public class Events {
             model.executeOpcode();
         }
 
+        /**
+         * send step back event
+         * @return false when there is no logged instruction to undo
+         */
+        public boolean sendStepBackEvent() {
+            return model.stepBack();
+        }
+
+        /**
+         * send reverse continue event
+         * @return true when breakpoint was reached
+         */
+        public boolean sendReverseContinueEvent() {
+            return model.reverseContinue();
+        }
+
+        /**
+         * send toggle breakpoint event
+         * @param linen line number selected by user
+         * @return line number of toggled breakpoint or -1 when there is no code at or after the line
+         */
+        public int sendToggleBreakpointEvent(int linen) {
+            return model.toggleBreakpoint(linen);
+        }
+
+        /**
+         * send is at breakpoint event
+         * @return true when instruction at ip has breakpoint
+         */
+        public boolean sendIsAtBreakpointEvent() {
+            return model.isAtBreakpoint();
+        }
+
+        /**
+         * send get breakpoint lines event
+         * @return line numbers of breakpoints
+         */
+        public int[] sendGetBreakpointLinesEvent() {
+            return model.getBreakpointLines();
+        }
+
         /**
          * send get currently executing line event
          * @return currently executing line
@@ -412,6 +483,92 @@ public class Events {
         public int sendGetPixelEvent(int x, int y) {
             return model.getPixel(x, y);
         }
+
+        /**
+         * send record frame event
+         */
+        public void sendRecordFrameEvent() {
+            model.recordFrame();
+        }
+
+        /**
+         * send rewind frame event
+         * @return false when rewind history is empty
+         */
+        public boolean sendRewindFrameEvent() {
+            return model.rewindFrame();
+        }
+
+        /**
+         * send is waiting for key event
+         * @return true when machine is blocked by GetKey with no key pressed
+         */
+        public boolean sendIsWaitingForKeyEvent() {
+            return model.isWaitingForKey();
+        }
+
+        /**
+         * send await input event, blocks while machine waits for key
+         * @throws InterruptedException when interrupted while waiting
+         */
+        public void sendAwaitInputEvent() throws InterruptedException {
+            model.awaitInput();
+        }
+
+        /**
+         * send wake up event
+         */
+        public void sendWakeUpEvent() {
+            model.wakeUp();
+        }
+
+        /**
+         * send set undo logging event
+         * @param enabled true while debugging
+         */
+        public void sendSetUndoLoggingEvent(boolean enabled) {
+            model.setUndoLogging(enabled);
+        }
+
+        /**
+         * send set run-ahead enabled event
+         * @param enabled true while emulation runs
+         */
+        public void sendSetRunAheadEnabledEvent(boolean enabled) {
+            model.setRunAheadEnabled(enabled);
+        }
+
+        /**
+         * send run-ahead frame event
+         * @param instructionsPerFrame instructions per frame
+         */
+        public void sendRunAheadFrameEvent(int instructionsPerFrame) {
+            model.runAheadFrame(instructionsPerFrame);
+        }
+
+        /**
+         * send get run-ahead cost event
+         * @return extra nanoseconds per frame
+         */
+        public double sendGetRunAheadExtraNanosPerFrameEvent() {
+            return model.getRunAheadExtraNanosPerFrame();
+        }
+
+        /**
+         * send get rewind frames event
+         * @return frames in rewind history
+         */
+        public int sendGetRewindFramesEvent() {
+            return model.getRewindFrames();
+        }
+
+        /**
+         * send get rewind memory event
+         * @return bytes needed by one minute of rewind history
+         */
+        public long sendGetRewindBytesPerMinuteEvent() {
+            return model.getRewindBytesPerMinute();
+        }
     }
 
     /**
@@ -461,5 +618,13 @@ public class Events {
             SwingUtilities.invokeLater(() -> view.clearScreen());
         }
 
+        /**
+         * send set screen event
+         * @param screen image to be set on screen
+         */
+        public void sendSetScreenEvent(BufferedImage screen) {
+            SwingUtilities.invokeLater(() -> view.setScreen(screen));
+        }
+
     }
 }
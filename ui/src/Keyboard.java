@@ -0,0 +1,169 @@
+import java.awt.event.KeyEvent;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * class translating keyboard events to CHIP-8 keypad of virtual machine, mapping is an array indexed by key code
+ * holding keypad key or UNMAPPED, so translating an event does not box or allocate,
+ * mapping profiles are text files with entries `KEY=hex` separated by commas or new lines (KEY is name of KeyEvent
+ * constant without VK_, hex is keypad key or `-` to unmap), `#` starts comment till the end of line, entries change
+ * the default mapping, for example `UP=5, DOWN=8, LEFT=7, RIGHT=9, SPACE=6`
+ */
+public class Keyboard {
+    public static final int UNMAPPED = -1;
+    public static final String PROFILE_EXTENSION = ".keys";
+    // key codes of letters, digits, arrows and function keys are below this
+    private static final int MAPPING_SIZE = 0x400;
+
+    private volatile int[] keyMapping;
+
+    /**
+     * default constructor
+     */
+    public Keyboard() {
+        keyMapping = getDefaultMapping();
+    }
+
+    /**
+     * constructor with custom key mappings
+     * @param keyMapping keypad key for every key code (UNMAPPED for unused keys)
+     */
+    public Keyboard(int[] keyMapping) {
+        this.keyMapping = keyMapping;
+    }
+
+    /**
+     * set key mappings, can be swapped while keys are handled
+     * @param mapping keypad key for every key code (UNMAPPED for unused keys)
+     */
+    public void setKeyMapping(int[] mapping) {
+        keyMapping = mapping;
+    }
+
+    /**
+     * get keypad key mapped to keyboard key
+     * @param keyEvent key event from keyboard
+     * @return keypad key number or UNMAPPED
+     */
+    public int mapKey(KeyEvent keyEvent) {
+        int[] mapping = keyMapping;
+        int code = keyEvent.getKeyCode();
+        return code >= 0 && code < mapping.length ? mapping[code] : UNMAPPED;
+    }
+
+    /**
+     * called by key event dispatcher presses key on keypad
+     * @param keyEvent key pressed event from keyboard
+     * @param state virtual machine receiving the key
+     */
+    public void keyPressed(KeyEvent keyEvent, VirtualMachineState state) {
+        int key = mapKey(keyEvent);
+        if(key != UNMAPPED) {
+            state.setKeyPressed(key, true);
+        }
+    }
+
+    /**
+     * called by key dispatcher releases key on keypad
+     * @param keyEvent key event from keyboard
+     * @param state virtual machine receiving the key
+     */
+    public void keyReleased(KeyEvent keyEvent, VirtualMachineState state) {
+        int key = mapKey(keyEvent);
+        if(key != UNMAPPED) {
+            state.setKeyPressed(key, false);
+        }
+    }
+
+    /**
+     * return the default mapping
+     * @return array mapping key codes on real keyboard to CHIP-8's hex keyboard
+     */
+    public static int[] getDefaultMapping() {
+        int[] mapping = new int[MAPPING_SIZE];
+        Arrays.fill(mapping, UNMAPPED);
+        mapping[KeyEvent.VK_1] = 1;
+        mapping[KeyEvent.VK_2] = 2;
+        mapping[KeyEvent.VK_3] = 3;
+        mapping[KeyEvent.VK_Q] = 4;
+        mapping[KeyEvent.VK_W] = 5;
+        mapping[KeyEvent.VK_E] = 6;
+        mapping[KeyEvent.VK_A] = 7;
+        mapping[KeyEvent.VK_S] = 8;
+        mapping[KeyEvent.VK_D] = 9;
+        mapping[KeyEvent.VK_Z] = 10;
+        mapping[KeyEvent.VK_X] = 0;
+        mapping[KeyEvent.VK_C] = 11;
+        mapping[KeyEvent.VK_4] = 12;
+        mapping[KeyEvent.VK_R] = 13;
+        mapping[KeyEvent.VK_F] = 14;
+        mapping[KeyEvent.VK_V] = 15;
+        return mapping;
+    }
+
+    /**
+     * parse mapping profile
+     * @param profile profile text
+     * @return default mapping changed by profile entries
+     * @throws IllegalArgumentException thrown on invalid entry
+     */
+    public static int[] parseMapping(String profile) {
+        int[] mapping = getDefaultMapping();
+        for(String line : profile.split("\n")) {
+            int comment = line.indexOf('#');
+            if(comment >= 0) {
+                line = line.substring(0, comment);
+            }
+            for(String entry : line.split(",")) {
+                entry = entry.trim();
+                if(entry.isEmpty()) {
+                    continue;
+                }
+                String[] parts = entry.split("=");
+                if(parts.length != 2) {
+                    throw new IllegalArgumentException("Invalid mapping entry " + entry);
+                }
+                int code = keyCode(parts[0].trim());
+                String key = parts[1].trim();
+                int value = key.equals("-") ? UNMAPPED : Integer.parseInt(key, 16);
+                if(value < UNMAPPED || value >= 16) {
+                    throw new IllegalArgumentException("Invalid keypad key " + key);
+                }
+                mapping[code] = value;
+            }
+        }
+        return mapping;
+    }
+
+    /**
+     * load mapping profile of ROM or assembly file, the profile is the file with PROFILE_EXTENSION appended
+     * (e.g. `roms/BRIX.keys`)
+     * @param program path to ROM or assembly
+     * @return mapping from profile or default mapping when program has no profile
+     * @throws IOException thrown when profile cannot be read
+     * @throws IllegalArgumentException thrown on invalid profile entry
+     */
+    public static int[] loadMappingFor(Path program) throws IOException {
+        Path profile = program.resolveSibling(program.getFileName() + PROFILE_EXTENSION);
+        if(!Files.isRegularFile(profile)) {
+            return getDefaultMapping();
+        }
+        return parseMapping(new String(Files.readAllBytes(profile)));
+    }
+
+    private static int keyCode(String name) {
+        try {
+            Field field = KeyEvent.class.getField("VK_" + name.toUpperCase());
+            int code = field.getInt(null);
+            if(code < 0 || code >= MAPPING_SIZE) {
+                throw new IllegalArgumentException("Key cannot be mapped " + name);
+            }
+            return code;
+        } catch (NoSuchFieldException | IllegalAccessException error) {
+            throw new IllegalArgumentException("Unknown key " + name);
+        }
+    }
+}
@@ -61,6 +61,32 @@ public interface ModelInterface {
      * @throws VirtualMachineState.VMException thrown by instruction
      */
     void executeOpcode() throws VirtualMachineState.VMException;
+    /**
+     * undo the last instruction executed by debugger
+     * @return false when there is nothing to undo
+     */
+    boolean stepBack();
+    /**
+     * go back to the last executed instruction with breakpoint or to the oldest instruction in history
+     * @return true when breakpoint was reached
+     */
+    boolean reverseContinue();
+    /**
+     * set or remove breakpoint at the line or the nearest line after it with code
+     * @param linen line number
+     * @return line number of toggled breakpoint or -1 when there is no code at or after the line
+     */
+    int toggleBreakpoint(int linen);
+    /**
+     * check breakpoint at current ip
+     * @return true when instruction at ip has breakpoint
+     */
+    boolean isAtBreakpoint();
+    /**
+     * get lines with breakpoints
+     * @return line numbers
+     */
+    int[] getBreakpointLines();
     /**
      * set selected register value
      * @param r selected register
@@ -100,6 +126,59 @@ public interface ModelInterface {
      * @return RGB value
      */
     int getPixel(int x, int y);
+    /**
+     * record current frame to rewind history
+     */
+    void recordFrame();
+    /**
+     * restore previous frame from rewind history
+     * @return false when history is empty
+     */
+    boolean rewindFrame();
+    /**
+     * check if machine is blocked by GetKey with no key pressed
+     * @return true when executing instructions would only repeat GetKey
+     */
+    boolean isWaitingForKey();
+    /**
+     * park calling thread while machine waits for key
+     * @throws InterruptedException when interrupted while waiting
+     */
+    void awaitInput() throws InterruptedException;
+    /**
+     * wake thread parked in awaitInput
+     */
+    void wakeUp();
+    /**
+     * enable or disable logging of executed instructions for stepping back
+     * @param enabled true while debugging
+     */
+    void setUndoLogging(boolean enabled);
+    /**
+     * enable or disable run-ahead, while enabled view shows only frames presented by runAheadFrame
+     * @param enabled true while emulation runs
+     */
+    void setRunAheadEnabled(boolean enabled);
+    /**
+     * present frame emulated ahead of the machine, the machine itself is not changed
+     * @param instructionsPerFrame instructions per frame
+     */
+    void runAheadFrame(int instructionsPerFrame);
+    /**
+     * get average extra time spent by run-ahead per frame
+     * @return nanoseconds per frame
+     */
+    double getRunAheadExtraNanosPerFrame();
+    /**
+     * get number of frames in rewind history
+     * @return frames
+     */
+    int getRewindFrames();
+    /**
+     * get memory needed by one minute of rewind history
+     * @return bytes per minute
+     */
+    long getRewindBytesPerMinute();
     /**
      * setup event handlers for view
      * @param view view part of MVC